@@ -0,0 +1,88 @@
+package com.searchengine.integration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.searchengine.config.SearchProperties;
+import com.searchengine.domain.ProviderSearchResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public final class StackExchangeFixtures {
+
+    public static final String SEARCH_EXCERPTS = "/fixtures/stackexchange/search-excerpts-100.json";
+
+    private StackExchangeFixtures() {
+    }
+
+    public static byte[] searchExcerptsPayload() {
+        try (InputStream input = StackExchangeFixtures.class.getResourceAsStream(SEARCH_EXCERPTS)) {
+            if (input == null) {
+                throw new IllegalStateException("Missing fixture " + SEARCH_EXCERPTS);
+            }
+            return input.readAllBytes();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public static StackOverflowSearchClient client() {
+        return new StackOverflowSearchClient(
+                WebClient.create(),
+                "http://localhost",
+                "",
+                new StackExchangeBackoffManager(new SimpleMeterRegistry()),
+                new StackExchangeRateGovernor(new SearchProperties(), new SimpleMeterRegistry())
+        );
+    }
+
+    public static ProviderSearchPage parse(byte[] payload) {
+        return client().parse(payload);
+    }
+
+    // Repeats the fixture page with distinct ids, urls and dates until the requested size is reached.
+    public static List<ProviderSearchResult> candidates(int count) {
+        List<ProviderSearchResult> fixture = parse(searchExcerptsPayload()).items();
+        List<ProviderSearchResult> candidates = new ArrayList<>(count);
+        for (int index = 0; index < count; index++) {
+            ProviderSearchResult source = fixture.get(index % fixture.size());
+            int round = index / fixture.size();
+            if (round == 0) {
+                candidates.add(source);
+                continue;
+            }
+            long questionId = source.questionId() + round * 100_000_000L;
+            candidates.add(new ProviderSearchResult(
+                    questionId,
+                    "https://stackoverflow.com/questions/" + questionId,
+                    source.title(),
+                    source.snippet(),
+                    source.source(),
+                    source.questionScore() + round % 7,
+                    source.answered(),
+                    source.acceptedAnswerId(),
+                    source.sourceQuality(),
+                    source.publishedAt().minus(Duration.ofDays(round)),
+                    source.tags(),
+                    source.metadataJson()
+            ));
+        }
+        return candidates;
+    }
+
+    public static JsonNode tree(ObjectMapper objectMapper, byte[] payload) {
+        try {
+            return objectMapper.readTree(payload);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
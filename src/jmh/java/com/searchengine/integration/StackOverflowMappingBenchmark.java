@@ -0,0 +1,47 @@
+package com.searchengine.integration;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StackOverflowMappingBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private StackOverflowSearchClient client;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        client = StackExchangeFixtures.client();
+        payload = StackExchangeFixtures.searchExcerptsPayload();
+    }
+
+    // Baseline: the JsonNode tree the client built before it parsed responses as a stream.
+    @Benchmark
+    public JsonNode readTree() {
+        return StackExchangeFixtures.tree(objectMapper, payload);
+    }
+
+    @Benchmark
+    public ProviderSearchPage readAndMap() {
+        return client.parse(payload);
+    }
+}
@@ -0,0 +1,69 @@
+package com.searchengine.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.searchengine.api.dto.SearchItem;
+import com.searchengine.config.SearchProperties;
+import com.searchengine.domain.ProviderSearchResult;
+import com.searchengine.integration.StackExchangeFixtures;
+import com.searchengine.persistence.DocumentEntity;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankerBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int candidates;
+
+    @Param({"java stream groupingBy", "kafka consumer lag"})
+    public String query;
+
+    @Param({"HEURISTIC", "BM25"})
+    public SearchProperties.RankingScorer scorer;
+
+    private Ranker ranker;
+    private List<ProviderSearchResult> results;
+
+    @Setup
+    public void setup() {
+        SearchProperties properties = new SearchProperties();
+        properties.getRanking().setScorer(scorer);
+        LocalSearchIndex localSearchIndex = new LocalSearchIndex(null, properties);
+        ranker = new Ranker(properties, localSearchIndex);
+        results = StackExchangeFixtures.candidates(candidates);
+
+        List<DocumentEntity> corpus = new ArrayList<>();
+        for (ProviderSearchResult result : StackExchangeFixtures.candidates(5000)) {
+            DocumentEntity entity = new DocumentEntity();
+            entity.setUrl(result.url());
+            entity.setTitle(result.title());
+            entity.setSnippet(result.snippet());
+            entity.setTags(String.join(",", result.tags()));
+            corpus.add(entity);
+        }
+        localSearchIndex.indexAll(corpus);
+    }
+
+    @Benchmark
+    public List<SearchItem> rank() {
+        return ranker.rank(query, results, 10);
+    }
+}
@@ -0,0 +1,98 @@
+package com.searchengine.service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.searchengine.api.dto.SearchItem;
+import com.searchengine.api.dto.SearchResponse;
+import com.searchengine.config.SearchProperties;
+import com.searchengine.integration.StackExchangeFixtures;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchCacheSerializationBenchmark {
+
+    @Param({"10", "50"})
+    public int items;
+
+    @Param({"JSON", "SMILE"})
+    public SearchProperties.CacheCodecFormat codecFormat;
+
+    // Same mapper configuration as AppConfig, which SearchCacheService uses for Redis values.
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private CachedSearchResponse entry;
+    private String payload;
+    private SearchCacheCodec codec;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        SearchProperties properties = new SearchProperties();
+        properties.getCache().setCodec(codecFormat);
+        Ranker ranker = new Ranker(properties, new LocalSearchIndex(null, properties));
+        List<SearchItem> ranked = ranker.rank("java stream", StackExchangeFixtures.candidates(items), items);
+        Instant now = Instant.now();
+        SearchResponse response = new SearchResponse(
+                "java stream",
+                "relevance",
+                List.of("java"),
+                items,
+                0,
+                true,
+                true,
+                now,
+                ranked.size(),
+                ranked,
+                false,
+                List.of(),
+                List.of(),
+                List.of()
+        );
+        entry = new CachedSearchResponse(response, now.plusSeconds(600), now.plusSeconds(2400), 180);
+        payload = objectMapper.writeValueAsString(entry);
+        codec = new SearchCacheCodec(objectMapper, properties, new SimpleMeterRegistry());
+        encoded = codec.encode(entry);
+    }
+
+    @Benchmark
+    public String serialize() throws IOException {
+        return objectMapper.writeValueAsString(entry);
+    }
+
+    @Benchmark
+    public CachedSearchResponse deserialize() throws IOException {
+        return objectMapper.readValue(payload, CachedSearchResponse.class);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return codec.encode(entry);
+    }
+
+    @Benchmark
+    public CachedSearchResponse decode() {
+        return codec.decode(encoded);
+    }
+}
@@ -0,0 +1,53 @@
+package com.searchengine.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.searchengine.domain.ProviderSearchResult;
+import com.searchengine.integration.StackExchangeFixtures;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchServiceBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int candidates;
+
+    private List<ProviderSearchResult> fused;
+    private final List<String> tags = List.of("java", "java-stream");
+
+    @Setup
+    public void setup() {
+        // Provider and local results overlap by roughly a third, as they do after fusion.
+        List<ProviderSearchResult> provider = StackExchangeFixtures.candidates(candidates);
+        fused = new ArrayList<>(provider);
+        fused.addAll(provider.subList(0, provider.size() / 3));
+    }
+
+    @Benchmark
+    public List<ProviderSearchResult> deduplicate() {
+        return SearchService.deduplicate(fused);
+    }
+
+    @Benchmark
+    public String buildCacheKey() {
+        return SearchService.buildCacheKey("  How do I   group a list by field  ", 10, 20, "relevance", tags);
+    }
+}
@@ -1,6 +1,7 @@
 package com.searchengine.api;
 
 import java.time.Instant;
+import java.util.concurrent.TimeoutException;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -8,12 +9,14 @@ import org.springframework.validation.BindException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.searchengine.api.dto.ApiErrorResponse;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.ConstraintViolationException;
 
 @RestControllerAdvice
@@ -37,6 +40,25 @@ public class GlobalExceptionHandler {
         return build(status, message, request);
     }
 
+    // A coalesced request whose leader is still running past the follower timeout.
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<ApiErrorResponse> handleTimeout(TimeoutException exception, HttpServletRequest request) {
+        return build(HttpStatus.GATEWAY_TIMEOUT, "Search timed out", request);
+    }
+
+    // The request outlived search.execution.mvc-async-timeout-millis; a stream that has started is just ended.
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ApiErrorResponse> handleAsyncTimeout(
+            AsyncRequestTimeoutException exception,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+        if (response.isCommitted()) {
+            return null;
+        }
+        return build(HttpStatus.SERVICE_UNAVAILABLE, "Request timed out", request);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiErrorResponse> handleUnexpected(Exception exception, HttpServletRequest request) {
         return build(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected server error", request);
@@ -8,24 +8,40 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.searchengine.integration.StackExchangeBackoffManager;
+import com.searchengine.integration.StackExchangeRateGovernor;
+import com.searchengine.service.ProviderCircuitBreakers;
 
 @RestController
 @RequestMapping("/api")
 public class HealthController {
 
     private final StackExchangeBackoffManager backoffManager;
+    private final StackExchangeRateGovernor rateGovernor;
+    private final ProviderCircuitBreakers circuitBreakers;
 
-    public HealthController(StackExchangeBackoffManager backoffManager) {
+    public HealthController(
+            StackExchangeBackoffManager backoffManager,
+            StackExchangeRateGovernor rateGovernor,
+            ProviderCircuitBreakers circuitBreakers
+    ) {
         this.backoffManager = backoffManager;
+        this.rateGovernor = rateGovernor;
+        this.circuitBreakers = circuitBreakers;
     }
 
     @GetMapping("/health")
     public Map<String, Object> health() {
+        StackExchangeRateGovernor.State rate = rateGovernor.state();
         return Map.of(
                 "status", "UP",
                 "timestamp", Instant.now().toString(),
                 "stackexchangeBackoffActive", backoffManager.isBackoffActive(),
-                "stackexchangeBackoffRemainingSeconds", backoffManager.remainingBackoff().toSeconds()
+                "stackexchangeBackoffRemainingSeconds", backoffManager.remainingBackoff().toSeconds(),
+                "stackexchangeQuotaRemaining", rate.quotaRemaining(),
+                "stackexchangeQuotaMax", rate.quotaMax(),
+                "stackexchangeRateTokensAvailable", Math.floor(rate.tokensAvailable()),
+                "stackexchangeEnrichmentAdmitted", rate.backgroundAdmitted(),
+                "providerCircuits", circuitBreakers.snapshots()
         );
     }
 }
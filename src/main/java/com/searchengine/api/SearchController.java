@@ -3,6 +3,8 @@ package com.searchengine.api;
 import java.util.Arrays;
 import java.util.List;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -10,11 +12,14 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.searchengine.api.dto.SearchResponse;
+import com.searchengine.api.dto.SearchStreamEvent;
 import com.searchengine.service.SearchService;
 
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/api")
@@ -28,7 +33,7 @@ public class SearchController {
     }
 
     @GetMapping("/search")
-    public SearchResponse search(
+    public Mono<SearchResponse> search(
             @RequestParam("q") @NotBlank String query,
             @RequestParam(name = "limit", defaultValue = "10") @Min(1) @Max(50) int limit,
             @RequestParam(name = "offset", defaultValue = "0") @Min(0) int offset,
@@ -38,6 +43,18 @@ public class SearchController {
         return searchService.search(query, limit, offset, sort, parseTags(tags));
     }
 
+    @GetMapping(path = "/search/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<SearchStreamEvent>> searchStream(
+            @RequestParam("q") @NotBlank String query,
+            @RequestParam(name = "limit", defaultValue = "10") @Min(1) @Max(50) int limit,
+            @RequestParam(name = "offset", defaultValue = "0") @Min(0) int offset,
+            @RequestParam(name = "sort", defaultValue = "relevance") String sort,
+            @RequestParam(name = "tags", required = false) String tags
+    ) {
+        return searchService.searchStream(query, limit, offset, sort, parseTags(tags))
+                .map(event -> ServerSentEvent.builder(event).event(event.type()).build());
+    }
+
     private List<String> parseTags(String tags) {
         if (tags == null || tags.isBlank()) {
             return List.of();
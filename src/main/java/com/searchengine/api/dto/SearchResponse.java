@@ -13,6 +13,16 @@ public record SearchResponse(
         boolean providerHasMore,
         Instant generatedAt,
         int total,
-        List<SearchItem> items
+        List<SearchItem> items,
+        boolean stale,
+        List<String> timedOutProviders,
+        List<String> skippedProviders,
+        List<String> failedProviders
 ) {
+    // Entries cached before these lists existed decode with null.
+    public SearchResponse {
+        timedOutProviders = timedOutProviders == null ? List.of() : timedOutProviders;
+        skippedProviders = skippedProviders == null ? List.of() : skippedProviders;
+        failedProviders = failedProviders == null ? List.of() : failedProviders;
+    }
 }
@@ -0,0 +1,10 @@
+package com.searchengine.api.dto;
+
+// type is "results" (phase cached, local, partial or final), "snippet" or "done".
+public record SearchStreamEvent(
+        String type,
+        String phase,
+        SearchResponse response,
+        SnippetUpdate snippet
+) {
+}
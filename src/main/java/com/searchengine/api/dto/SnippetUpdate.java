@@ -0,0 +1,8 @@
+package com.searchengine.api.dto;
+
+public record SnippetUpdate(
+        Long questionId,
+        String link,
+        String snippet
+) {
+}
@@ -2,18 +2,36 @@ package com.searchengine.config;
 
 import java.time.Duration;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.ToDoubleFunction;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Configuration
+@EnableScheduling
 public class AppConfig {
 
     @Bean
@@ -30,27 +48,165 @@ public class AppConfig {
         return new ObjectMapper().registerModule(new JavaTimeModule());
     }
 
+    @Bean
+    public ReactiveRedisTemplate<String, byte[]> binaryRedisTemplate(ReactiveRedisConnectionFactory connectionFactory) {
+        RedisSerializationContext<String, byte[]> context = RedisSerializationContext
+                .<String, byte[]>newSerializationContext(RedisSerializer.string())
+                .value(RedisSerializer.byteArray())
+                .build();
+        return new ReactiveRedisTemplate<>(connectionFactory, context);
+    }
+
     @Bean(name = "searchExecutor")
-    public Executor searchExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(4);
-        executor.setMaxPoolSize(8);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("search-");
-        executor.setAwaitTerminationSeconds((int) Duration.ofSeconds(5).toSeconds());
-        executor.initialize();
-        return executor;
+    public Executor searchExecutor(SearchProperties searchProperties, MeterRegistry meterRegistry) {
+        SearchProperties.Execution execution = searchProperties.getExecution();
+        if (useVirtualThreads(execution)) {
+            return virtualThreadExecutor("search", "search-", execution.getSearchConcurrency(), meterRegistry);
+        }
+        return platformExecutor("search", "search-", 4, 8, 100, meterRegistry);
+    }
+
+    @Bean(name = "cacheRefreshExecutor")
+    public Executor cacheRefreshExecutor(MeterRegistry meterRegistry) {
+        return platformExecutor("cache-refresh", "cache-refresh-", 1, 2, 50, meterRegistry);
     }
 
     @Bean(name = "enrichmentExecutor")
-    public Executor enrichmentExecutor() {
+    public Executor enrichmentExecutor(SearchProperties searchProperties, MeterRegistry meterRegistry) {
+        SearchProperties.Execution execution = searchProperties.getExecution();
+        if (useVirtualThreads(execution)) {
+            return virtualThreadExecutor("enrichment", "enrich-", execution.getEnrichmentConcurrency(), meterRegistry);
+        }
+        return platformExecutor("enrichment", "enrich-", 2, 4, 100, meterRegistry);
+    }
+
+    // Writes Mono and streamed (SSE) responses; without it Spring MVC starts an unbounded thread per async request.
+    @Bean(name = "mvcAsyncExecutor")
+    public AsyncTaskExecutor mvcAsyncExecutor(SearchProperties searchProperties, MeterRegistry meterRegistry) {
+        SearchProperties.Execution execution = searchProperties.getExecution();
+        if (useVirtualThreads(execution)) {
+            return virtualThreadExecutor("mvc-async", "mvc-async-", execution.getMvcAsyncConcurrency(), meterRegistry);
+        }
+        return platformExecutor(
+                "mvc-async",
+                "mvc-async-",
+                Math.min(4, Math.max(1, execution.getMvcAsyncConcurrency())),
+                Math.max(1, execution.getMvcAsyncConcurrency()),
+                Math.max(0, execution.getMvcAsyncQueueCapacity()),
+                meterRegistry
+        );
+    }
+
+    // An async request still open after mvc-async-timeout-millis is ended with AsyncRequestTimeoutException.
+    @Bean
+    public WebMvcConfigurer asyncSupportConfigurer(
+            @Qualifier("mvcAsyncExecutor") AsyncTaskExecutor mvcAsyncExecutor,
+            SearchProperties searchProperties
+    ) {
+        long timeoutMillis = Math.max(1, searchProperties.getExecution().getMvcAsyncTimeoutMillis());
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(mvcAsyncExecutor);
+                configurer.setDefaultTimeout(timeoutMillis);
+            }
+        };
+    }
+
+    private boolean useVirtualThreads(SearchProperties.Execution execution) {
+        return execution.getMode() == SearchProperties.ExecutorMode.VIRTUAL && Runtime.version().feature() >= 21;
+    }
+
+    private ThreadPoolTaskExecutor platformExecutor(
+            String name,
+            String threadNamePrefix,
+            int corePoolSize,
+            int maxPoolSize,
+            int queueCapacity,
+            MeterRegistry meterRegistry
+    ) {
+        Counter rejected = rejectedCounter(name, "platform", meterRegistry);
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(4);
-        executor.setQueueCapacity(100);
-        executor.setThreadNamePrefix("enrich-");
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
         executor.setAwaitTerminationSeconds((int) Duration.ofSeconds(5).toSeconds());
+        executor.setTaskDecorator(new ExecutorMetricsDecorator(name, "platform", meterRegistry));
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Executor " + name + " is saturated");
+        });
         executor.initialize();
+        registerSaturationGauges(
+                name,
+                "platform",
+                executor,
+                ThreadPoolTaskExecutor::getActiveCount,
+                ThreadPoolTaskExecutor::getQueueSize,
+                meterRegistry
+        );
+        return executor;
+    }
+
+    // One virtual thread per task; a semaphore taken inside the task bounds how many run at once,
+    // so bursts wait as parked virtual threads instead of being rejected or blocking the caller.
+    private SimpleAsyncTaskExecutor virtualThreadExecutor(String name, String threadNamePrefix, int concurrency, MeterRegistry meterRegistry) {
+        Semaphore permits = new Semaphore(Math.max(1, concurrency));
+        ExecutorMetricsDecorator metrics = new ExecutorMetricsDecorator(name, "virtual", meterRegistry);
+        Gauge.builder("search.executor.permits.available", permits, Semaphore::availablePermits)
+                .tag("executor", name)
+                .register(meterRegistry);
+        int limit = Math.max(1, concurrency);
+        registerSaturationGauges(
+                name,
+                "virtual",
+                permits,
+                semaphore -> limit - semaphore.availablePermits(),
+                Semaphore::getQueueLength,
+                meterRegistry
+        );
+
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(Duration.ofSeconds(5).toMillis());
+        executor.setTaskDecorator(task -> {
+            Runnable measured = metrics.decorate(task);
+            return () -> {
+                permits.acquireUninterruptibly();
+                try {
+                    measured.run();
+                } finally {
+                    permits.release();
+                }
+            };
+        });
         return executor;
     }
+
+    // Tasks running and tasks waiting to run; for virtual threads, waiting means parked on the concurrency permit.
+    private <T> void registerSaturationGauges(
+            String name,
+            String mode,
+            T executor,
+            ToDoubleFunction<T> active,
+            ToDoubleFunction<T> waiting,
+            MeterRegistry meterRegistry
+    ) {
+        Gauge.builder("search.executor.active", executor, active)
+                .tag("executor", name)
+                .tag("mode", mode)
+                .register(meterRegistry);
+        Gauge.builder("search.executor.waiting", executor, waiting)
+                .tag("executor", name)
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    private Counter rejectedCounter(String name, String mode, MeterRegistry meterRegistry) {
+        return Counter.builder("search.executor.rejected")
+                .tag("executor", name)
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
 }
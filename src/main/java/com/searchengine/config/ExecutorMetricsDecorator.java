@@ -0,0 +1,42 @@
+package com.searchengine.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.core.task.TaskDecorator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+public class ExecutorMetricsDecorator implements TaskDecorator {
+
+    private final Timer queueWait;
+    private final Timer runTime;
+
+    public ExecutorMetricsDecorator(String executor, String mode, MeterRegistry meterRegistry) {
+        this.queueWait = Timer.builder("search.executor.queue.wait")
+                .tag("executor", executor)
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.runTime = Timer.builder("search.executor.run")
+                .tag("executor", executor)
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    // Called on the submitting thread, so queue wait covers pool queueing and any permit wait alike.
+    @Override
+    public Runnable decorate(Runnable task) {
+        long submittedAt = System.nanoTime();
+        return () -> {
+            long startedAt = System.nanoTime();
+            queueWait.record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+            try {
+                task.run();
+            } finally {
+                runTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+}
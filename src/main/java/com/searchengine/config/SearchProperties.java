@@ -8,6 +8,15 @@ public class SearchProperties {
     private Cache cache = new Cache();
     private Providers providers = new Providers();
     private Enrichment enrichment = new Enrichment();
+    private LocalIndex localIndex = new LocalIndex();
+    private Coalescing coalescing = new Coalescing();
+    private Ingestion ingestion = new Ingestion();
+    private QueryLog queryLog = new QueryLog();
+    private Analytics analytics = new Analytics();
+    private Ranking ranking = new Ranking();
+    private Execution execution = new Execution();
+    private Warmup warmup = new Warmup();
+    private Streaming streaming = new Streaming();
 
     public Cache getCache() {
         return cache;
@@ -33,12 +42,93 @@ public class SearchProperties {
         this.enrichment = enrichment;
     }
 
+    public LocalIndex getLocalIndex() {
+        return localIndex;
+    }
+
+    public void setLocalIndex(LocalIndex localIndex) {
+        this.localIndex = localIndex;
+    }
+
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    public void setCoalescing(Coalescing coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    public Ingestion getIngestion() {
+        return ingestion;
+    }
+
+    public void setIngestion(Ingestion ingestion) {
+        this.ingestion = ingestion;
+    }
+
+    public QueryLog getQueryLog() {
+        return queryLog;
+    }
+
+    public void setQueryLog(QueryLog queryLog) {
+        this.queryLog = queryLog;
+    }
+
+    public Analytics getAnalytics() {
+        return analytics;
+    }
+
+    public void setAnalytics(Analytics analytics) {
+        this.analytics = analytics;
+    }
+
+    public Ranking getRanking() {
+        return ranking;
+    }
+
+    public void setRanking(Ranking ranking) {
+        this.ranking = ranking;
+    }
+
+    public Execution getExecution() {
+        return execution;
+    }
+
+    public void setExecution(Execution execution) {
+        this.execution = execution;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    public Streaming getStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(Streaming streaming) {
+        this.streaming = streaming;
+    }
+
+    public enum OverflowPolicy {
+        DROP,
+        BLOCK
+    }
+
     public static class Enrichment {
         private boolean enabled = true;
         private int topN = 5;
         private int maxConcurrentFetches = 20;
-        private int perHostLimit = 5;
         private long fetchTimeoutMillis = 4000;
+        private int batchSize = 100;
+        private long batchWindowMillis = 250;
+        private int queueCapacity = 2000;
+        private long refreshAfterHours = 168;
+        private long maxJobAgeMillis = 60000;
 
         public boolean isEnabled() {
             return enabled;
@@ -64,14 +154,6 @@ public class SearchProperties {
             this.maxConcurrentFetches = maxConcurrentFetches;
         }
 
-        public int getPerHostLimit() {
-            return perHostLimit;
-        }
-
-        public void setPerHostLimit(int perHostLimit) {
-            this.perHostLimit = perHostLimit;
-        }
-
         public long getFetchTimeoutMillis() {
             return fetchTimeoutMillis;
         }
@@ -79,10 +161,447 @@ public class SearchProperties {
         public void setFetchTimeoutMillis(long fetchTimeoutMillis) {
             this.fetchTimeoutMillis = fetchTimeoutMillis;
         }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getBatchWindowMillis() {
+            return batchWindowMillis;
+        }
+
+        public void setBatchWindowMillis(long batchWindowMillis) {
+            this.batchWindowMillis = batchWindowMillis;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getRefreshAfterHours() {
+            return refreshAfterHours;
+        }
+
+        public void setRefreshAfterHours(long refreshAfterHours) {
+            this.refreshAfterHours = refreshAfterHours;
+        }
+
+        public long getMaxJobAgeMillis() {
+            return maxJobAgeMillis;
+        }
+
+        public void setMaxJobAgeMillis(long maxJobAgeMillis) {
+            this.maxJobAgeMillis = maxJobAgeMillis;
+        }
+    }
+
+    public static class Coalescing {
+        private boolean enabled = true;
+        private long followerTimeoutMillis = 5000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getFollowerTimeoutMillis() {
+            return followerTimeoutMillis;
+        }
+
+        public void setFollowerTimeoutMillis(long followerTimeoutMillis) {
+            this.followerTimeoutMillis = followerTimeoutMillis;
+        }
+    }
+
+    public static class Ingestion {
+        private int queueCapacity = 5000;
+        private int batchSize = 200;
+        private long flushIntervalMillis = 500;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        private long blockTimeoutMillis = 50;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public long getBlockTimeoutMillis() {
+            return blockTimeoutMillis;
+        }
+
+        public void setBlockTimeoutMillis(long blockTimeoutMillis) {
+            this.blockTimeoutMillis = blockTimeoutMillis;
+        }
+    }
+
+    public static class QueryLog {
+        private int queueCapacity = 10000;
+        private int batchSize = 500;
+        private long flushIntervalMillis = 1000;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+        private long blockTimeoutMillis = 0;
+        private int writeAttempts = 3;
+        private long retryBackoffMillis = 200;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalMillis() {
+            return flushIntervalMillis;
+        }
+
+        public void setFlushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public long getBlockTimeoutMillis() {
+            return blockTimeoutMillis;
+        }
+
+        public void setBlockTimeoutMillis(long blockTimeoutMillis) {
+            this.blockTimeoutMillis = blockTimeoutMillis;
+        }
+
+        public int getWriteAttempts() {
+            return writeAttempts;
+        }
+
+        public void setWriteAttempts(int writeAttempts) {
+            this.writeAttempts = writeAttempts;
+        }
+
+        public long getRetryBackoffMillis() {
+            return retryBackoffMillis;
+        }
+
+        public void setRetryBackoffMillis(long retryBackoffMillis) {
+            this.retryBackoffMillis = retryBackoffMillis;
+        }
+    }
+
+    public enum ExecutorMode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    public static class Execution {
+        private ExecutorMode mode = ExecutorMode.PLATFORM;
+        private int searchConcurrency = 64;
+        private int enrichmentConcurrency = 16;
+        private int mvcAsyncConcurrency = 32;
+        private int mvcAsyncQueueCapacity = 500;
+        private long mvcAsyncTimeoutMillis = 30000;
+
+        public ExecutorMode getMode() {
+            return mode;
+        }
+
+        public void setMode(ExecutorMode mode) {
+            this.mode = mode;
+        }
+
+        public int getSearchConcurrency() {
+            return searchConcurrency;
+        }
+
+        public void setSearchConcurrency(int searchConcurrency) {
+            this.searchConcurrency = searchConcurrency;
+        }
+
+        public int getEnrichmentConcurrency() {
+            return enrichmentConcurrency;
+        }
+
+        public void setEnrichmentConcurrency(int enrichmentConcurrency) {
+            this.enrichmentConcurrency = enrichmentConcurrency;
+        }
+
+        public int getMvcAsyncConcurrency() {
+            return mvcAsyncConcurrency;
+        }
+
+        public void setMvcAsyncConcurrency(int mvcAsyncConcurrency) {
+            this.mvcAsyncConcurrency = mvcAsyncConcurrency;
+        }
+
+        public int getMvcAsyncQueueCapacity() {
+            return mvcAsyncQueueCapacity;
+        }
+
+        public void setMvcAsyncQueueCapacity(int mvcAsyncQueueCapacity) {
+            this.mvcAsyncQueueCapacity = mvcAsyncQueueCapacity;
+        }
+
+        public long getMvcAsyncTimeoutMillis() {
+            return mvcAsyncTimeoutMillis;
+        }
+
+        public void setMvcAsyncTimeoutMillis(long mvcAsyncTimeoutMillis) {
+            this.mvcAsyncTimeoutMillis = mvcAsyncTimeoutMillis;
+        }
+    }
+
+    public enum RankingScorer {
+        HEURISTIC,
+        BM25
+    }
+
+    public static class Ranking {
+        private RankingScorer scorer = RankingScorer.HEURISTIC;
+        private int providerOverFetchFactor = 3;
+        private Bm25 bm25 = new Bm25();
+
+        public RankingScorer getScorer() {
+            return scorer;
+        }
+
+        public void setScorer(RankingScorer scorer) {
+            this.scorer = scorer;
+        }
+
+        public int getProviderOverFetchFactor() {
+            return providerOverFetchFactor;
+        }
+
+        public void setProviderOverFetchFactor(int providerOverFetchFactor) {
+            this.providerOverFetchFactor = providerOverFetchFactor;
+        }
+
+        public Bm25 getBm25() {
+            return bm25;
+        }
+
+        public void setBm25(Bm25 bm25) {
+            this.bm25 = bm25;
+        }
+
+        public static class Bm25 {
+            private double k1 = 1.2;
+            private double titleWeight = 2.0;
+            private double bodyWeight = 1.0;
+            private double titleB = 0.75;
+            private double bodyB = 0.75;
+
+            public double getK1() {
+                return k1;
+            }
+
+            public void setK1(double k1) {
+                this.k1 = k1;
+            }
+
+            public double getTitleWeight() {
+                return titleWeight;
+            }
+
+            public void setTitleWeight(double titleWeight) {
+                this.titleWeight = titleWeight;
+            }
+
+            public double getBodyWeight() {
+                return bodyWeight;
+            }
+
+            public void setBodyWeight(double bodyWeight) {
+                this.bodyWeight = bodyWeight;
+            }
+
+            public double getTitleB() {
+                return titleB;
+            }
+
+            public void setTitleB(double titleB) {
+                this.titleB = titleB;
+            }
+
+            public double getBodyB() {
+                return bodyB;
+            }
+
+            public void setBodyB(double bodyB) {
+                this.bodyB = bodyB;
+            }
+        }
+    }
+
+    public static class Analytics {
+        private long cacheSeconds = 5;
+
+        public long getCacheSeconds() {
+            return cacheSeconds;
+        }
+
+        public void setCacheSeconds(long cacheSeconds) {
+            this.cacheSeconds = cacheSeconds;
+        }
+    }
+
+    public static class LocalIndex {
+        private boolean enabled = true;
+        private int loadBatchSize = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getLoadBatchSize() {
+            return loadBatchSize;
+        }
+
+        public void setLoadBatchSize(int loadBatchSize) {
+            this.loadBatchSize = loadBatchSize;
+        }
+    }
+
+    public static class Streaming {
+        private long enrichmentWaitMillis = 3000;
+
+        public long getEnrichmentWaitMillis() {
+            return enrichmentWaitMillis;
+        }
+
+        public void setEnrichmentWaitMillis(long enrichmentWaitMillis) {
+            this.enrichmentWaitMillis = enrichmentWaitMillis;
+        }
+    }
+
+    public static class Warmup {
+        private boolean enabled = true;
+        private int topQueries = 20;
+        private long lookbackHours = 24;
+        private long intervalSeconds = 240;
+        private long refreshAheadSeconds = 300;
+        private double maxQuotaFraction = 0.1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTopQueries() {
+            return topQueries;
+        }
+
+        public void setTopQueries(int topQueries) {
+            this.topQueries = topQueries;
+        }
+
+        public long getLookbackHours() {
+            return lookbackHours;
+        }
+
+        public void setLookbackHours(long lookbackHours) {
+            this.lookbackHours = lookbackHours;
+        }
+
+        public long getIntervalSeconds() {
+            return intervalSeconds;
+        }
+
+        public void setIntervalSeconds(long intervalSeconds) {
+            this.intervalSeconds = intervalSeconds;
+        }
+
+        public long getRefreshAheadSeconds() {
+            return refreshAheadSeconds;
+        }
+
+        public void setRefreshAheadSeconds(long refreshAheadSeconds) {
+            this.refreshAheadSeconds = refreshAheadSeconds;
+        }
+
+        public double getMaxQuotaFraction() {
+            return maxQuotaFraction;
+        }
+
+        public void setMaxQuotaFraction(double maxQuotaFraction) {
+            this.maxQuotaFraction = maxQuotaFraction;
+        }
+    }
+
+    public enum CacheCodecFormat {
+        JSON,
+        SMILE
     }
 
     public static class Cache {
         private long searchTtlMinutes = 10;
+        private long staleTtlMinutes = 30;
+        private double earlyRefreshBeta = 1.0;
+        private boolean l1Enabled = true;
+        private long l1MaxEntries = 5000;
+        private long l1MaxWeightBytes = 32L * 1024 * 1024;
+        private long l1TtlSeconds = 300;
+        private CacheCodecFormat codec = CacheCodecFormat.SMILE;
+        private int compressionThresholdBytes = 1024;
+        private long providerPageTtlMinutes = 10;
+        private long providerPageMaxEntries = 500;
 
         public long getSearchTtlMinutes() {
             return searchTtlMinutes;
@@ -91,11 +610,118 @@ public class SearchProperties {
         public void setSearchTtlMinutes(long searchTtlMinutes) {
             this.searchTtlMinutes = searchTtlMinutes;
         }
+
+        public long getStaleTtlMinutes() {
+            return staleTtlMinutes;
+        }
+
+        public void setStaleTtlMinutes(long staleTtlMinutes) {
+            this.staleTtlMinutes = staleTtlMinutes;
+        }
+
+        public double getEarlyRefreshBeta() {
+            return earlyRefreshBeta;
+        }
+
+        public void setEarlyRefreshBeta(double earlyRefreshBeta) {
+            this.earlyRefreshBeta = earlyRefreshBeta;
+        }
+
+        public boolean isL1Enabled() {
+            return l1Enabled;
+        }
+
+        public void setL1Enabled(boolean l1Enabled) {
+            this.l1Enabled = l1Enabled;
+        }
+
+        public long getL1MaxEntries() {
+            return l1MaxEntries;
+        }
+
+        public void setL1MaxEntries(long l1MaxEntries) {
+            this.l1MaxEntries = l1MaxEntries;
+        }
+
+        public long getL1MaxWeightBytes() {
+            return l1MaxWeightBytes;
+        }
+
+        public void setL1MaxWeightBytes(long l1MaxWeightBytes) {
+            this.l1MaxWeightBytes = l1MaxWeightBytes;
+        }
+
+        public long getL1TtlSeconds() {
+            return l1TtlSeconds;
+        }
+
+        public void setL1TtlSeconds(long l1TtlSeconds) {
+            this.l1TtlSeconds = l1TtlSeconds;
+        }
+
+        public CacheCodecFormat getCodec() {
+            return codec;
+        }
+
+        public void setCodec(CacheCodecFormat codec) {
+            this.codec = codec;
+        }
+
+        public int getCompressionThresholdBytes() {
+            return compressionThresholdBytes;
+        }
+
+        public void setCompressionThresholdBytes(int compressionThresholdBytes) {
+            this.compressionThresholdBytes = compressionThresholdBytes;
+        }
+
+        public long getProviderPageTtlMinutes() {
+            return providerPageTtlMinutes;
+        }
+
+        public void setProviderPageTtlMinutes(long providerPageTtlMinutes) {
+            this.providerPageTtlMinutes = providerPageTtlMinutes;
+        }
+
+        public long getProviderPageMaxEntries() {
+            return providerPageMaxEntries;
+        }
+
+        public void setProviderPageMaxEntries(long providerPageMaxEntries) {
+            this.providerPageMaxEntries = providerPageMaxEntries;
+        }
     }
 
     public static class Providers {
+        private long latencyBudgetMillis = 2500;
+        private Hedge hedge = new Hedge();
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
         private Stackoverflow stackoverflow = new Stackoverflow();
 
+        public long getLatencyBudgetMillis() {
+            return latencyBudgetMillis;
+        }
+
+        public void setLatencyBudgetMillis(long latencyBudgetMillis) {
+            this.latencyBudgetMillis = latencyBudgetMillis;
+        }
+
+        public Hedge getHedge() {
+            return hedge;
+        }
+
+        public void setHedge(Hedge hedge) {
+            this.hedge = hedge;
+        }
+
+        public CircuitBreaker getCircuitBreaker() {
+            return circuitBreaker;
+        }
+
+        public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+        }
+
         public Stackoverflow getStackoverflow() {
             return stackoverflow;
         }
@@ -104,9 +730,116 @@ public class SearchProperties {
             this.stackoverflow = stackoverflow;
         }
 
+        public static class Hedge {
+            private boolean enabled = true;
+            private long minDelayMillis = 100;
+            private long minSamples = 20;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public long getMinDelayMillis() {
+                return minDelayMillis;
+            }
+
+            public void setMinDelayMillis(long minDelayMillis) {
+                this.minDelayMillis = minDelayMillis;
+            }
+
+            public long getMinSamples() {
+                return minSamples;
+            }
+
+            public void setMinSamples(long minSamples) {
+                this.minSamples = minSamples;
+            }
+        }
+
+        public static class CircuitBreaker {
+            private boolean enabled = true;
+            private int windowSize = 50;
+            private int minimumCalls = 20;
+            private double failureRateThreshold = 0.5;
+            private long slowCallMillis = 1500;
+            private double slowCallRateThreshold = 0.8;
+            private long openMillis = 30000;
+            private int halfOpenProbes = 3;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getWindowSize() {
+                return windowSize;
+            }
+
+            public void setWindowSize(int windowSize) {
+                this.windowSize = windowSize;
+            }
+
+            public int getMinimumCalls() {
+                return minimumCalls;
+            }
+
+            public void setMinimumCalls(int minimumCalls) {
+                this.minimumCalls = minimumCalls;
+            }
+
+            public double getFailureRateThreshold() {
+                return failureRateThreshold;
+            }
+
+            public void setFailureRateThreshold(double failureRateThreshold) {
+                this.failureRateThreshold = failureRateThreshold;
+            }
+
+            public long getSlowCallMillis() {
+                return slowCallMillis;
+            }
+
+            public void setSlowCallMillis(long slowCallMillis) {
+                this.slowCallMillis = slowCallMillis;
+            }
+
+            public double getSlowCallRateThreshold() {
+                return slowCallRateThreshold;
+            }
+
+            public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+                this.slowCallRateThreshold = slowCallRateThreshold;
+            }
+
+            public long getOpenMillis() {
+                return openMillis;
+            }
+
+            public void setOpenMillis(long openMillis) {
+                this.openMillis = openMillis;
+            }
+
+            public int getHalfOpenProbes() {
+                return halfOpenProbes;
+            }
+
+            public void setHalfOpenProbes(int halfOpenProbes) {
+                this.halfOpenProbes = halfOpenProbes;
+            }
+        }
+
         public static class Stackoverflow {
             private String baseUrl = "https://api.stackexchange.com";
             private String apiKey = "";
+            private long timeoutMillis = 2000;
+            private RateLimit rateLimit = new RateLimit();
 
             public String getBaseUrl() {
                 return baseUrl;
@@ -123,6 +856,79 @@ public class SearchProperties {
             public void setApiKey(String apiKey) {
                 this.apiKey = apiKey;
             }
+
+            public long getTimeoutMillis() {
+                return timeoutMillis;
+            }
+
+            public void setTimeoutMillis(long timeoutMillis) {
+                this.timeoutMillis = timeoutMillis;
+            }
+
+            public RateLimit getRateLimit() {
+                return rateLimit;
+            }
+
+            public void setRateLimit(RateLimit rateLimit) {
+                this.rateLimit = rateLimit;
+            }
+        }
+
+        public static class RateLimit {
+            private double requestsPerSecond = 25;
+            private int burst = 30;
+            private int interactiveReserveTokens = 5;
+            private long interactiveMaxWaitMillis = 250;
+            private double backgroundSlowdownQuotaFraction = 0.5;
+            private double backgroundStopQuotaFraction = 0.1;
+
+            public double getRequestsPerSecond() {
+                return requestsPerSecond;
+            }
+
+            public void setRequestsPerSecond(double requestsPerSecond) {
+                this.requestsPerSecond = requestsPerSecond;
+            }
+
+            public int getBurst() {
+                return burst;
+            }
+
+            public void setBurst(int burst) {
+                this.burst = burst;
+            }
+
+            public int getInteractiveReserveTokens() {
+                return interactiveReserveTokens;
+            }
+
+            public void setInteractiveReserveTokens(int interactiveReserveTokens) {
+                this.interactiveReserveTokens = interactiveReserveTokens;
+            }
+
+            public long getInteractiveMaxWaitMillis() {
+                return interactiveMaxWaitMillis;
+            }
+
+            public void setInteractiveMaxWaitMillis(long interactiveMaxWaitMillis) {
+                this.interactiveMaxWaitMillis = interactiveMaxWaitMillis;
+            }
+
+            public double getBackgroundSlowdownQuotaFraction() {
+                return backgroundSlowdownQuotaFraction;
+            }
+
+            public void setBackgroundSlowdownQuotaFraction(double backgroundSlowdownQuotaFraction) {
+                this.backgroundSlowdownQuotaFraction = backgroundSlowdownQuotaFraction;
+            }
+
+            public double getBackgroundStopQuotaFraction() {
+                return backgroundStopQuotaFraction;
+            }
+
+            public void setBackgroundStopQuotaFraction(double backgroundStopQuotaFraction) {
+                this.backgroundStopQuotaFraction = backgroundStopQuotaFraction;
+            }
         }
     }
 }
@@ -2,6 +2,10 @@ package com.searchengine.integration;
 
 import java.util.List;
 
+import reactor.core.publisher.Mono;
+
 public interface ExternalSearchClient {
-    ProviderSearchPage search(String query, int limit, int offset, String sort, List<String> tags);
+    // Callers apply the timeout and pick the scheduler the call is subscribed on. Completing empty means the
+    // provider declined to make the call (rate limit, backoff): callers must neither cache nor count the result.
+    Mono<ProviderSearchPage> searchReactive(String query, int limit, int offset, String sort, List<String> tags);
 }
@@ -6,13 +6,22 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Component
 public class StackExchangeBackoffManager {
 
     private final AtomicLong blockedUntilMillis = new AtomicLong(0L);
 
+    public StackExchangeBackoffManager(MeterRegistry meterRegistry) {
+        Gauge.builder("search.stackexchange.backoff.active", this, manager -> manager.isBackoffActive() ? 1 : 0)
+                .register(meterRegistry);
+        Gauge.builder("search.stackexchange.backoff.remaining", this, manager -> manager.remainingBackoff().toMillis() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
     public boolean isBackoffActive() {
         return System.currentTimeMillis() < blockedUntilMillis.get();
     }
@@ -25,11 +34,7 @@ public class StackExchangeBackoffManager {
         return Duration.ofMillis(remaining);
     }
 
-    public void registerFromResponse(JsonNode response) {
-        if (response == null) {
-            return;
-        }
-        long backoffSeconds = response.path("backoff").asLong(0L);
+    public void registerBackoff(long backoffSeconds) {
         if (backoffSeconds <= 0) {
             return;
         }
@@ -0,0 +1,169 @@
+package com.searchengine.integration;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Component;
+
+import com.searchengine.config.SearchProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Shared budget for every StackExchange call: a per-second token bucket plus the daily quota reported in
+// responses. Interactive searches may use the whole bucket; background enrichment must leave a reserve for
+// them and pays more per call as the quota runs down, until it is stopped entirely.
+@Component
+public class StackExchangeRateGovernor {
+
+    public enum Priority {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    // Put in the subscriber context next to a Priority to learn how many calls were actually granted; an
+    // invalid-key retry is a second call.
+    public static final class GrantedCalls {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public void add() {
+            count.incrementAndGet();
+        }
+
+        public int count() {
+            return count.get();
+        }
+    }
+
+    public record State(
+            int quotaRemaining,
+            int quotaMax,
+            double tokensAvailable,
+            boolean backgroundAdmitted
+    ) {
+    }
+
+    private final SearchProperties.Providers.RateLimit rateLimit;
+    private final double tokensPerNano;
+    private final Counter interactiveDenied;
+    private final Counter backgroundDenied;
+    private double tokens;
+    private long refilledAtNanos;
+    private int quotaRemaining = -1;
+    private int quotaMax = -1;
+    private LocalDate quotaDay;
+
+    public StackExchangeRateGovernor(SearchProperties searchProperties, MeterRegistry meterRegistry) {
+        this.rateLimit = searchProperties.getProviders().getStackoverflow().getRateLimit();
+        this.tokensPerNano = Math.max(0.001, rateLimit.getRequestsPerSecond()) / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = burst();
+        this.refilledAtNanos = System.nanoTime();
+        this.interactiveDenied = Counter.builder("search.stackexchange.rate.denied")
+                .tag("priority", "interactive")
+                .register(meterRegistry);
+        this.backgroundDenied = Counter.builder("search.stackexchange.rate.denied")
+                .tag("priority", "background")
+                .register(meterRegistry);
+        Gauge.builder("search.stackexchange.quota.remaining", this, governor -> governor.state().quotaRemaining())
+                .register(meterRegistry);
+    }
+
+    public long reserve(Priority priority) {
+        return reserve(priority, Duration.ofMillis(Math.max(0, rateLimit.getInteractiveMaxWaitMillis())));
+    }
+
+    // Takes one call's worth of tokens. Returns how long the caller must wait before sending, or -1 if the call
+    // is refused; a granted call may borrow against the next refill by up to maxWait.
+    public synchronized long reserve(Priority priority, Duration maxWait) {
+        refill();
+        double cost = priority == Priority.INTERACTIVE ? 1.0 : backgroundCost();
+        if (quotaExhausted() || Double.isInfinite(cost)) {
+            deny(priority);
+            return -1L;
+        }
+
+        double reserve = priority == Priority.INTERACTIVE ? 0.0 : Math.max(0, rateLimit.getInteractiveReserveTokens());
+        double missing = cost - (tokens - reserve);
+        long waitNanos = missing <= 0 ? 0L : (long) Math.ceil(missing / tokensPerNano);
+        if (waitNanos > maxWait.toNanos()) {
+            deny(priority);
+            return -1L;
+        }
+        tokens -= cost;
+        return waitNanos;
+    }
+
+    public synchronized boolean admits(Priority priority) {
+        refill();
+        if (quotaExhausted()) {
+            return false;
+        }
+        if (priority == Priority.INTERACTIVE) {
+            return true;
+        }
+        return tokens - Math.max(0, rateLimit.getInteractiveReserveTokens()) >= backgroundCost();
+    }
+
+    // Negative values mean the response did not carry the field.
+    public synchronized void registerQuota(int remaining, int max) {
+        if (remaining < 0) {
+            return;
+        }
+        quotaRemaining = remaining;
+        if (max >= 0) {
+            quotaMax = max;
+        }
+        quotaDay = LocalDate.now(ZoneOffset.UTC);
+    }
+
+    public synchronized State state() {
+        refill();
+        boolean known = quotaKnown();
+        return new State(
+                known ? quotaRemaining : -1,
+                known ? quotaMax : -1,
+                Math.max(0.0, tokens),
+                admits(Priority.BACKGROUND)
+        );
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst(), tokens + (now - refilledAtNanos) * tokensPerNano);
+        refilledAtNanos = now;
+    }
+
+    // StackExchange quotas reset at midnight UTC; a reading from an earlier day says nothing about today.
+    private boolean quotaKnown() {
+        return quotaDay != null && quotaDay.equals(LocalDate.now(ZoneOffset.UTC)) && quotaMax > 0;
+    }
+
+    private boolean quotaExhausted() {
+        return quotaKnown() && quotaRemaining <= 0;
+    }
+
+    private double backgroundCost() {
+        if (!quotaKnown()) {
+            return 1.0;
+        }
+        double fraction = (double) quotaRemaining / quotaMax;
+        if (fraction <= rateLimit.getBackgroundStopQuotaFraction()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double slowdown = rateLimit.getBackgroundSlowdownQuotaFraction();
+        return fraction >= slowdown ? 1.0 : slowdown / fraction;
+    }
+
+    private double burst() {
+        return Math.max(1, rateLimit.getBurst());
+    }
+
+    private void deny(Priority priority) {
+        (priority == Priority.INTERACTIVE ? interactiveDenied : backgroundDenied).increment();
+    }
+}
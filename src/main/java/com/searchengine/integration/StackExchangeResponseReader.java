@@ -0,0 +1,267 @@
+package com.searchengine.integration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Reads a StackExchange response envelope token by token as network buffers arrive, without building a tree or
+// aggregating the body. Only the envelope fields below and the requested fields of each item are kept, so memory
+// per call follows the kept fields (plus the longest single string) rather than the payload size. Each item is
+// mapped as soon as its object closes; a mapper returning null drops the item.
+public final class StackExchangeResponseReader<T> {
+
+    public record Envelope<T>(
+            List<T> items,
+            boolean hasMore,
+            long backoffSeconds,
+            int quotaRemaining,
+            int quotaMax,
+            String errorName,
+            String errorMessage
+    ) {
+
+        public static <T> Envelope<T> empty() {
+            return new Envelope<>(List.of(), false, 0L, -1, -1, "", "");
+        }
+    }
+
+    // The kept fields of one item: scalars as their JSON text, arrays of scalars as lists of text.
+    public static final class Item {
+
+        private final Map<String, Object> fields = new HashMap<>();
+
+        public String text(String name) {
+            return fields.get(name) instanceof String value ? value : "";
+        }
+
+        public long asLong(String name) {
+            try {
+                return Long.parseLong(text(name));
+            } catch (NumberFormatException ignored) {
+                return 0L;
+            }
+        }
+
+        public int asInt(String name) {
+            long value = asLong(name);
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+        }
+
+        public boolean asBoolean(String name) {
+            return "true".equals(text(name));
+        }
+
+        @SuppressWarnings("unchecked")
+        public List<String> list(String name) {
+            return fields.get(name) instanceof List<?> values ? (List<String>) values : List.of();
+        }
+    }
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int ENVELOPE = 1;
+    private static final int ITEMS = 2;
+    private static final int ITEM = 3;
+    private static final int ITEM_ARRAY = 4;
+
+    private final Set<String> itemFields;
+    private final Function<Item, T> mapper;
+    private final JsonParser parser;
+    private final ByteBufferFeeder feeder;
+    private final List<T> items = new ArrayList<>();
+    private boolean hasMore;
+    private long backoffSeconds;
+    private int quotaRemaining = -1;
+    private int quotaMax = -1;
+    private String errorName = "";
+    private String errorMessage = "";
+    // Number of open objects and arrays; while skipping a value, skipping ends when depth drops back to skipDepth.
+    private int depth;
+    private int skipDepth = -1;
+    private String envelopeField;
+    private String itemField;
+    private Item item;
+    private List<String> itemArray;
+
+    private StackExchangeResponseReader(Set<String> itemFields, Function<Item, T> mapper) {
+        this.itemFields = itemFields;
+        this.mapper = mapper;
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteBufferParser();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    public static <T> Mono<Envelope<T>> read(Flux<DataBuffer> body, Set<String> itemFields, Function<Item, T> mapper) {
+        return body
+                .collect(() -> new StackExchangeResponseReader<>(itemFields, mapper), StackExchangeResponseReader::feed)
+                .map(StackExchangeResponseReader::finish);
+    }
+
+    public static <T> Envelope<T> read(byte[] payload, Set<String> itemFields, Function<Item, T> mapper) {
+        StackExchangeResponseReader<T> reader = new StackExchangeResponseReader<>(itemFields, mapper);
+        reader.feed(ByteBuffer.wrap(payload));
+        return reader.finish();
+    }
+
+    private void feed(DataBuffer buffer) {
+        try (DataBuffer.ByteBufferIterator chunks = buffer.readableByteBuffers()) {
+            while (chunks.hasNext()) {
+                feed(chunks.next());
+            }
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private void feed(ByteBuffer chunk) {
+        try {
+            feeder.feedInput(chunk);
+            drain();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private Envelope<T> finish() {
+        try {
+            feeder.endOfInput();
+            drain();
+            parser.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return new Envelope<>(List.copyOf(items), hasMore, backoffSeconds, quotaRemaining, quotaMax, errorName, errorMessage);
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (skipDepth >= 0) {
+                skip(token);
+                continue;
+            }
+            switch (depth) {
+                case 0 -> root(token);
+                case ENVELOPE -> envelope(token);
+                case ITEMS -> items(token);
+                case ITEM -> item(token);
+                case ITEM_ARRAY -> itemArray(token);
+                default -> startSkipping(token);
+            }
+        }
+    }
+
+    private void root(JsonToken token) {
+        if (token == JsonToken.START_OBJECT) {
+            depth = ENVELOPE;
+        } else {
+            startSkipping(token);
+        }
+    }
+
+    private void envelope(JsonToken token) throws IOException {
+        if (token == JsonToken.FIELD_NAME) {
+            envelopeField = parser.currentName();
+        } else if (token == JsonToken.END_OBJECT) {
+            depth = 0;
+        } else if (token == JsonToken.START_ARRAY && "items".equals(envelopeField)) {
+            depth = ITEMS;
+        } else if (token.isScalarValue()) {
+            switch (envelopeField) {
+                case "has_more" -> hasMore = token == JsonToken.VALUE_TRUE;
+                case "backoff" -> backoffSeconds = parser.getValueAsLong(0L);
+                case "quota_remaining" -> quotaRemaining = parser.getValueAsInt(-1);
+                case "quota_max" -> quotaMax = parser.getValueAsInt(-1);
+                case "error_name" -> errorName = parser.getValueAsString("");
+                case "error_message" -> errorMessage = parser.getValueAsString("");
+                default -> {
+                }
+            }
+        } else {
+            startSkipping(token);
+        }
+    }
+
+    private void items(JsonToken token) {
+        if (token == JsonToken.START_OBJECT) {
+            item = new Item();
+            depth = ITEM;
+        } else if (token == JsonToken.END_ARRAY) {
+            depth = ENVELOPE;
+        } else {
+            startSkipping(token);
+        }
+    }
+
+    private void item(JsonToken token) throws IOException {
+        if (token == JsonToken.FIELD_NAME) {
+            itemField = parser.currentName();
+        } else if (token == JsonToken.END_OBJECT) {
+            T mapped = mapper.apply(item);
+            if (mapped != null) {
+                items.add(mapped);
+            }
+            item = null;
+            depth = ITEMS;
+        } else if (!itemFields.contains(itemField)) {
+            startSkipping(token);
+        } else if (token == JsonToken.START_ARRAY) {
+            itemArray = new ArrayList<>();
+            depth = ITEM_ARRAY;
+        } else if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+            item.fields.put(itemField, parser.getText());
+        } else {
+            startSkipping(token);
+        }
+    }
+
+    private void itemArray(JsonToken token) throws IOException {
+        if (token == JsonToken.END_ARRAY) {
+            item.fields.put(itemField, itemArray);
+            itemArray = null;
+            depth = ITEM;
+        } else if (token.isScalarValue() && token != JsonToken.VALUE_NULL) {
+            itemArray.add(parser.getText());
+        } else {
+            startSkipping(token);
+        }
+    }
+
+    // Scalars are skipped by not reading them; objects and arrays are skipped until they close.
+    private void startSkipping(JsonToken token) {
+        if (token.isStructStart()) {
+            skipDepth = depth;
+            depth++;
+        }
+    }
+
+    private void skip(JsonToken token) {
+        if (token.isStructStart()) {
+            depth++;
+        } else if (token.isStructEnd()) {
+            depth--;
+            if (depth == skipDepth) {
+                skipDepth = -1;
+            }
+        }
+    }
+}
@@ -1,120 +1,142 @@
 package com.searchengine.integration;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.HtmlUtils;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.searchengine.domain.ProviderSearchResult;
 import com.searchengine.domain.SourceType;
 
+import reactor.core.publisher.Mono;
+
 @Component
 public class StackOverflowSearchClient implements ExternalSearchClient {
 
+    // Item fields read by toResult; everything else in a /search/excerpts item is skipped while parsing.
+    private static final Set<String> ITEM_FIELDS = Set.of(
+            "question_id", "link", "title", "score", "is_answered", "accepted_answer_id", "creation_date", "tags", "excerpt", "body"
+    );
+
     private final WebClient webClient;
     private final String baseUrl;
     private final String apiKey;
     private final StackExchangeBackoffManager backoffManager;
+    private final StackExchangeRateGovernor rateGovernor;
 
     public StackOverflowSearchClient(
             WebClient webClient,
             @Value("${search.providers.stackoverflow.base-url:https://api.stackexchange.com}") String baseUrl,
             @Value("${search.providers.stackoverflow.api-key:${STACKEXCHANGE_API_KEY:}}") String apiKey,
-            StackExchangeBackoffManager backoffManager
+            StackExchangeBackoffManager backoffManager,
+            StackExchangeRateGovernor rateGovernor
     ) {
         this.webClient = webClient;
         this.baseUrl = baseUrl;
         this.apiKey = apiKey;
         this.backoffManager = backoffManager;
+        this.rateGovernor = rateGovernor;
     }
 
+    // Failures propagate so the caller's circuit breaker sees them, and the caller applies the timeout. Completes
+    // empty when no call was made (backoff, or refused by the rate governor).
     @Override
-    public ProviderSearchPage search(String query, int limit, int offset, String sort, List<String> tags) {
+    public Mono<ProviderSearchPage> searchReactive(String query, int limit, int offset, String sort, List<String> tags) {
         if (backoffManager.isBackoffActive()) {
-            return ProviderSearchPage.empty();
+            return Mono.empty();
         }
 
-        try {
-            String normalizedSort = normalizeSort(sort);
-            int safeLimit = Math.max(1, limit);
-            int safeOffset = Math.max(0, offset);
-            int page = (safeOffset / safeLimit) + 1;
-
-            JsonNode response = executeSearchRequest(query, safeLimit, page, normalizedSort, tags, apiKey);
-
-            if (isInvalidKeyResponse(response) && StringUtils.hasText(apiKey)) {
-                response = executeSearchRequest(query, safeLimit, page, normalizedSort, tags, "");
-            }
-
-            backoffManager.registerFromResponse(response);
+        String normalizedSort = normalizeSort(sort);
+        int safeLimit = Math.max(1, limit);
+        int safeOffset = Math.max(0, offset);
+        int page = (safeOffset / safeLimit) + 1;
+
+        return governed(executeSearchRequest(query, safeLimit, page, normalizedSort, tags, apiKey))
+                .flatMap(response -> isInvalidKeyResponse(response) && StringUtils.hasText(apiKey)
+                        ? governed(executeSearchRequest(query, safeLimit, page, normalizedSort, tags, ""))
+                        : Mono.just(response))
+                .doOnNext(response -> {
+                    backoffManager.registerBackoff(response.backoffSeconds());
+                    rateGovernor.registerQuota(response.quotaRemaining(), response.quotaMax());
+                })
+                .map(response -> new ProviderSearchPage(response.items(), response.hasMore()));
+    }
 
-            if (response == null || !response.has("items")) {
-                return ProviderSearchPage.empty();
+    // The token is taken at subscription, so a retried call pays for itself; a refused call completes empty.
+    // Callers doing background work (cache warming) mark it with a Priority in the subscriber context, and may add
+    // GrantedCalls to count the calls that went out.
+    private Mono<StackExchangeResponseReader.Envelope<ProviderSearchResult>> governed(
+            Mono<StackExchangeResponseReader.Envelope<ProviderSearchResult>> request
+    ) {
+        return Mono.deferContextual(context -> {
+            StackExchangeRateGovernor.Priority priority = context.getOrDefault(
+                    StackExchangeRateGovernor.Priority.class,
+                    StackExchangeRateGovernor.Priority.INTERACTIVE
+            );
+            long waitNanos = rateGovernor.reserve(priority);
+            if (waitNanos < 0) {
+                return Mono.empty();
             }
+            context.<StackExchangeRateGovernor.GrantedCalls>getOrEmpty(StackExchangeRateGovernor.GrantedCalls.class)
+                    .ifPresent(StackExchangeRateGovernor.GrantedCalls::add);
+            return waitNanos == 0 ? request : Mono.delay(Duration.ofNanos(waitNanos)).then(request);
+        });
+    }
 
-            boolean hasMore = response.path("has_more").asBoolean(false);
-
-            List<ProviderSearchResult> results = new ArrayList<>();
-            JsonNode items = response.path("items");
-            if (!items.isArray()) {
-                return ProviderSearchPage.empty();
-            }
+    ProviderSearchPage parse(byte[] payload) {
+        StackExchangeResponseReader.Envelope<ProviderSearchResult> response = StackExchangeResponseReader.read(payload, ITEM_FIELDS, this::toResult);
+        return new ProviderSearchPage(response.items(), response.hasMore());
+    }
 
-            for (JsonNode item : items) {
-                String url = resolveUrl(item);
-                if (url.isBlank()) {
-                    continue;
-                }
-                String title = decodeText(item.path("title").asText(""));
-                long questionId = item.path("question_id").asLong(0L);
-                int score = item.path("score").asInt(0);
-                boolean answered = item.path("is_answered").asBoolean(false);
-                long acceptedAnswerId = item.path("accepted_answer_id").asLong(0L);
-                long creationDate = item.path("creation_date").asLong(0L);
-                String snippet = extractSnippet(item);
-
-                List<String> itemTags = new ArrayList<>();
-                JsonNode tagsNode = item.path("tags");
-                if (tagsNode.isArray()) {
-                    for (JsonNode tag : tagsNode) {
-                        itemTags.add(decodeText(tag.asText()));
-                    }
-                }
-
-                double quality = Math.min(1.25, score / 40.0) + (answered ? 0.5 : 0.0);
-                String metadata = "{\"score\":" + score + ",\"answered\":" + answered + "}";
-
-                results.add(new ProviderSearchResult(
-                    questionId > 0 ? questionId : null,
-                        url,
-                        title,
-                        snippet,
-                        SourceType.STACKOVERFLOW,
-                    score,
-                    answered,
-                    acceptedAnswerId > 0 ? acceptedAnswerId : null,
-                        quality,
-                        creationDate > 0 ? Instant.ofEpochSecond(creationDate) : Instant.now(),
-                    itemTags,
-                        metadata
-                ));
-            }
-            return new ProviderSearchPage(results, hasMore);
-        } catch (RuntimeException ignored) {
-            return ProviderSearchPage.empty();
+    private ProviderSearchResult toResult(StackExchangeResponseReader.Item item) {
+        String url = resolveUrl(item);
+        if (url.isBlank()) {
+            return null;
+        }
+        String title = decodeText(item.text("title"));
+        long questionId = item.asLong("question_id");
+        int score = item.asInt("score");
+        boolean answered = item.asBoolean("is_answered");
+        long acceptedAnswerId = item.asLong("accepted_answer_id");
+        long creationDate = item.asLong("creation_date");
+        String snippet = extractSnippet(item);
+
+        List<String> itemTags = new ArrayList<>();
+        for (String tag : item.list("tags")) {
+            itemTags.add(decodeText(tag));
         }
+
+        double quality = Math.min(1.25, score / 40.0) + (answered ? 0.5 : 0.0);
+        String metadata = "{\"score\":" + score + ",\"answered\":" + answered + "}";
+
+        return new ProviderSearchResult(
+                questionId > 0 ? questionId : null,
+                url,
+                title,
+                snippet,
+                SourceType.STACKOVERFLOW,
+                score,
+                answered,
+                acceptedAnswerId > 0 ? acceptedAnswerId : null,
+                quality,
+                creationDate > 0 ? Instant.ofEpochSecond(creationDate) : Instant.now(),
+                itemTags,
+                metadata
+        );
     }
 
-    private JsonNode executeSearchRequest(
+    private Mono<StackExchangeResponseReader.Envelope<ProviderSearchResult>> executeSearchRequest(
             String query,
             int limit,
             int page,
@@ -148,16 +170,13 @@ public class StackOverflowSearchClient implements ExternalSearchClient {
         return webClient.get()
                 .uri(builder.build().encode().toUri())
                 .retrieve()
-                .bodyToMono(JsonNode.class)
-                .block();
+                .bodyToFlux(DataBuffer.class)
+                .as(body -> StackExchangeResponseReader.read(body, ITEM_FIELDS, this::toResult));
     }
 
-    private boolean isInvalidKeyResponse(JsonNode response) {
-        if (response == null) {
-            return false;
-        }
-        String errorName = response.path("error_name").asText("");
-        String errorMessage = response.path("error_message").asText("");
+    private boolean isInvalidKeyResponse(StackExchangeResponseReader.Envelope<ProviderSearchResult> response) {
+        String errorName = response.errorName();
+        String errorMessage = response.errorMessage();
         return "key_invalid".equalsIgnoreCase(errorName)
                 || errorMessage.toLowerCase(Locale.ROOT).contains("key");
     }
@@ -174,13 +193,13 @@ public class StackOverflowSearchClient implements ExternalSearchClient {
         };
     }
 
-    private String extractSnippet(JsonNode item) {
-        String excerpt = decodeText(stripHtml(item.path("excerpt").asText("")));
+    private String extractSnippet(StackExchangeResponseReader.Item item) {
+        String excerpt = decodeText(stripHtml(item.text("excerpt")));
         if (!excerpt.isBlank()) {
             return excerpt;
         }
 
-        String body = decodeText(stripHtml(item.path("body").asText("")));
+        String body = decodeText(stripHtml(item.text("body")));
         if (!body.isBlank()) {
             return truncate(body, 280);
         }
@@ -188,13 +207,13 @@ public class StackOverflowSearchClient implements ExternalSearchClient {
         return "Stack Overflow result.";
     }
 
-    private String resolveUrl(JsonNode item) {
-        long questionId = item.path("question_id").asLong(0L);
+    private String resolveUrl(StackExchangeResponseReader.Item item) {
+        long questionId = item.asLong("question_id");
         if (questionId > 0) {
             return "https://stackoverflow.com/questions/" + questionId;
         }
 
-        String link = item.path("link").asText("");
+        String link = item.text("link");
         if (!link.isBlank()) {
             return link;
         }
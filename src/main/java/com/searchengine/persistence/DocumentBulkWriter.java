@@ -0,0 +1,131 @@
+package com.searchengine.persistence;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class DocumentBulkWriter {
+
+    // Search excerpts only: question_text, best_answer_text, enriched_at and content_hash belong to enrichment
+    // and are left untouched, and an enriched normalized_text is not replaced by the thinner excerpt.
+    private static final String COLUMNS = """
+            url, question_id, source, title, normalized_text, metadata_json, tags, snippet,
+            question_score, answered, accepted_answer_id, published_at, fetched_at""";
+
+    private static final String PLACEHOLDERS = "?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?";
+
+    private static final String POSTGRES_UPSERT = "INSERT INTO documents (" + COLUMNS + ") VALUES (" + PLACEHOLDERS + ")"
+            + """
+             ON CONFLICT (url) DO UPDATE SET
+                question_id = EXCLUDED.question_id,
+                source = EXCLUDED.source,
+                title = EXCLUDED.title,
+                normalized_text = CASE WHEN documents.enriched_at IS NULL
+                    THEN EXCLUDED.normalized_text ELSE documents.normalized_text END,
+                metadata_json = EXCLUDED.metadata_json,
+                tags = EXCLUDED.tags,
+                snippet = EXCLUDED.snippet,
+                question_score = EXCLUDED.question_score,
+                answered = EXCLUDED.answered,
+                accepted_answer_id = EXCLUDED.accepted_answer_id,
+                published_at = EXCLUDED.published_at,
+                fetched_at = EXCLUDED.fetched_at""";
+
+    private static final String H2_UPSERT = "MERGE INTO documents d USING (VALUES (" + PLACEHOLDERS + ")) AS s ("
+            + COLUMNS + ") ON d.url = s.url "
+            + """
+             WHEN MATCHED THEN UPDATE SET
+                question_id = s.question_id,
+                source = s.source,
+                title = s.title,
+                normalized_text = CASE WHEN d.enriched_at IS NULL THEN s.normalized_text ELSE d.normalized_text END,
+                metadata_json = s.metadata_json,
+                tags = s.tags,
+                snippet = s.snippet,
+                question_score = s.question_score,
+                answered = s.answered,
+                accepted_answer_id = s.accepted_answer_id,
+                published_at = s.published_at,
+                fetched_at = s.fetched_at
+             WHEN NOT MATCHED THEN INSERT (""" + COLUMNS + """
+            ) VALUES (
+                s.url, s.question_id, s.source, s.title, s.normalized_text, s.metadata_json, s.tags, s.snippet,
+                s.question_score, s.answered, s.accepted_answer_id, s.published_at, s.fetched_at)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile SqlDialect dialect;
+
+    public DocumentBulkWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Returns false, without touching the database, when there is no bulk upsert statement for it; the caller
+    // then saves the documents another way.
+    public boolean upsert(List<DocumentEntity> documents) {
+        if (documents.isEmpty()) {
+            return true;
+        }
+        if (dialect == null) {
+            dialect = SqlDialect.detect(jdbcTemplate);
+        }
+        SqlDialect current = dialect == null ? SqlDialect.OTHER : dialect;
+        String sql = switch (current) {
+            case POSTGRES -> POSTGRES_UPSERT;
+            case H2 -> H2_UPSERT;
+            case OTHER -> null;
+        };
+        if (sql == null) {
+            return false;
+        }
+        jdbcTemplate.batchUpdate(sql, documents, documents.size(), this::bind);
+        return true;
+    }
+
+    private void bind(PreparedStatement statement, DocumentEntity document) throws SQLException {
+        statement.setString(1, document.getUrl());
+        setLong(statement, 2, document.getQuestionId());
+        statement.setString(3, document.getSource());
+        statement.setString(4, document.getTitle());
+        statement.setString(5, document.getNormalizedText());
+        statement.setString(6, document.getMetadataJson());
+        statement.setString(7, document.getTags());
+        statement.setString(8, document.getSnippet());
+        if (document.getQuestionScore() == null) {
+            statement.setNull(9, Types.INTEGER);
+        } else {
+            statement.setInt(9, document.getQuestionScore());
+        }
+        if (document.getAnswered() == null) {
+            statement.setNull(10, Types.BOOLEAN);
+        } else {
+            statement.setBoolean(10, document.getAnswered());
+        }
+        setLong(statement, 11, document.getAcceptedAnswerId());
+        setInstant(statement, 12, document.getPublishedAt());
+        setInstant(statement, 13, document.getFetchedAt() == null ? Instant.now() : document.getFetchedAt());
+    }
+
+    private void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, value);
+        }
+    }
+
+    private void setInstant(PreparedStatement statement, int index, Instant value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.TIMESTAMP_WITH_TIMEZONE);
+        } else {
+            statement.setObject(index, OffsetDateTime.ofInstant(value, ZoneOffset.UTC));
+        }
+    }
+}
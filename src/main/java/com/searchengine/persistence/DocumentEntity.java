@@ -40,9 +40,30 @@ public class DocumentEntity {
     @Column(name = "best_answer_text", columnDefinition = "TEXT")
     private String bestAnswerText;
 
+    @Column(name = "snippet", columnDefinition = "TEXT")
+    private String snippet;
+
+    @Column(name = "question_score")
+    private Integer questionScore;
+
+    @Column(name = "answered")
+    private Boolean answered;
+
+    @Column(name = "accepted_answer_id")
+    private Long acceptedAnswerId;
+
+    @Column(name = "published_at")
+    private Instant publishedAt;
+
     @Column(name = "fetched_at", nullable = false)
     private Instant fetchedAt;
 
+    @Column(name = "enriched_at")
+    private Instant enrichedAt;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @PrePersist
     @SuppressWarnings("unused")
     private void onCreate() {
@@ -123,6 +144,46 @@ public class DocumentEntity {
         this.bestAnswerText = bestAnswerText;
     }
 
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+
+    public Integer getQuestionScore() {
+        return questionScore;
+    }
+
+    public void setQuestionScore(Integer questionScore) {
+        this.questionScore = questionScore;
+    }
+
+    public Boolean getAnswered() {
+        return answered;
+    }
+
+    public void setAnswered(Boolean answered) {
+        this.answered = answered;
+    }
+
+    public Long getAcceptedAnswerId() {
+        return acceptedAnswerId;
+    }
+
+    public void setAcceptedAnswerId(Long acceptedAnswerId) {
+        this.acceptedAnswerId = acceptedAnswerId;
+    }
+
+    public Instant getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(Instant publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
     public Instant getFetchedAt() {
         return fetchedAt;
     }
@@ -130,4 +191,20 @@ public class DocumentEntity {
     public void setFetchedAt(Instant fetchedAt) {
         this.fetchedAt = fetchedAt;
     }
+
+    public Instant getEnrichedAt() {
+        return enrichedAt;
+    }
+
+    public void setEnrichedAt(Instant enrichedAt) {
+        this.enrichedAt = enrichedAt;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
 }
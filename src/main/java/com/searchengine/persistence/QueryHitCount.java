@@ -0,0 +1,4 @@
+package com.searchengine.persistence;
+
+public record QueryHitCount(String queryText, long hits) {
+}
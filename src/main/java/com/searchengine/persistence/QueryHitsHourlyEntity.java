@@ -0,0 +1,81 @@
+package com.searchengine.persistence;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "query_hits_hourly")
+@IdClass(QueryHitsHourlyEntity.Key.class)
+public class QueryHitsHourlyEntity {
+
+    @Id
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Id
+    @Column(name = "query_text", nullable = false, length = 512)
+    private String queryText;
+
+    @Column(name = "hits", nullable = false)
+    private long hits;
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(Instant bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public String getQueryText() {
+        return queryText;
+    }
+
+    public void setQueryText(String queryText) {
+        this.queryText = queryText;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public static class Key implements Serializable {
+        private Instant bucketStart;
+        private String queryText;
+
+        public Key() {
+        }
+
+        public Key(Instant bucketStart, String queryText) {
+            this.bucketStart = bucketStart;
+            this.queryText = queryText;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(bucketStart, key.bucketStart) && Objects.equals(queryText, key.queryText);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucketStart, queryText);
+        }
+    }
+}
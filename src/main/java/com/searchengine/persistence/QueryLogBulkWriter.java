@@ -0,0 +1,40 @@
+package com.searchengine.persistence;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class QueryLogBulkWriter {
+
+    private static final String INSERT = """
+            INSERT INTO query_logs (query_text, sort, tags, limit_value, offset_value, result_count, cache_hit, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public QueryLogBulkWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(List<QueryLogEntity> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT, logs, logs.size(), (statement, log) -> {
+            statement.setString(1, log.getQueryText());
+            statement.setString(2, log.getSort());
+            statement.setString(3, log.getTags());
+            statement.setInt(4, log.getLimitValue());
+            statement.setInt(5, log.getOffsetValue());
+            statement.setInt(6, log.getResultCount());
+            statement.setBoolean(7, log.isCacheHit());
+            Instant createdAt = log.getCreatedAt() == null ? Instant.now() : log.getCreatedAt();
+            statement.setObject(8, OffsetDateTime.ofInstant(createdAt, ZoneOffset.UTC));
+        });
+    }
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface QueryLogRepository extends JpaRepository<QueryLogEntity, Long> {
 
@@ -18,4 +19,14 @@ public interface QueryLogRepository extends JpaRepository<QueryLogEntity, Long>
             order by count(q) desc
             """)
     List<QueryHitView> findTopQueries(Pageable pageable);
+
+    // First-page requests only: deeper pages are rarely repeated and not worth keeping warm.
+    @Query("""
+            select q.queryText as queryText, q.sort as sort, q.tags as tags, q.limitValue as limitValue, count(q) as hits
+            from QueryLogEntity q
+            where q.createdAt >= :since and q.offsetValue = 0
+            group by q.queryText, q.sort, q.tags, q.limitValue
+            order by count(q) desc
+            """)
+    List<QueryVariantView> findTopQueryVariants(@Param("since") Instant since, Pageable pageable);
 }
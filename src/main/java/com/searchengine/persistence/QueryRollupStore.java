@@ -0,0 +1,160 @@
+package com.searchengine.persistence;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public class QueryRollupStore {
+
+    private static final String POSTGRES_STATS_UPSERT = """
+            INSERT INTO query_stats_hourly (bucket_start, query_count, cache_hit_count) VALUES (?, ?, ?)
+            ON CONFLICT (bucket_start) DO UPDATE SET
+                query_count = query_stats_hourly.query_count + EXCLUDED.query_count,
+                cache_hit_count = query_stats_hourly.cache_hit_count + EXCLUDED.cache_hit_count""";
+
+    private static final String POSTGRES_HITS_UPSERT = """
+            INSERT INTO query_hits_hourly (bucket_start, query_text, hits) VALUES (?, ?, ?)
+            ON CONFLICT (bucket_start, query_text) DO UPDATE SET
+                hits = query_hits_hourly.hits + EXCLUDED.hits""";
+
+    private static final String H2_STATS_UPSERT = """
+            MERGE INTO query_stats_hourly t
+            USING (SELECT CAST(? AS TIMESTAMP WITH TIME ZONE) AS bucket_start,
+                          CAST(? AS BIGINT) AS query_count,
+                          CAST(? AS BIGINT) AS cache_hit_count) s
+            ON t.bucket_start = s.bucket_start
+            WHEN MATCHED THEN UPDATE SET
+                query_count = t.query_count + s.query_count,
+                cache_hit_count = t.cache_hit_count + s.cache_hit_count
+            WHEN NOT MATCHED THEN INSERT (bucket_start, query_count, cache_hit_count)
+                VALUES (s.bucket_start, s.query_count, s.cache_hit_count)""";
+
+    private static final String H2_HITS_UPSERT = """
+            MERGE INTO query_hits_hourly t
+            USING (SELECT CAST(? AS TIMESTAMP WITH TIME ZONE) AS bucket_start,
+                          CAST(? AS VARCHAR(512)) AS query_text,
+                          CAST(? AS BIGINT) AS hits) s
+            ON t.bucket_start = s.bucket_start AND t.query_text = s.query_text
+            WHEN MATCHED THEN UPDATE SET hits = t.hits + s.hits
+            WHEN NOT MATCHED THEN INSERT (bucket_start, query_text, hits)
+                VALUES (s.bucket_start, s.query_text, s.hits)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile SqlDialect dialect;
+
+    public QueryRollupStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void increment(List<QueryLogEntity> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+
+        Map<Instant, long[]> stats = new LinkedHashMap<>();
+        Map<HitKey, Long> hits = new LinkedHashMap<>();
+        for (QueryLogEntity log : logs) {
+            Instant bucket = bucketOf(log.getCreatedAt());
+            long[] counts = stats.computeIfAbsent(bucket, ignored -> new long[2]);
+            counts[0]++;
+            if (log.isCacheHit()) {
+                counts[1]++;
+            }
+            hits.merge(new HitKey(bucket, log.getQueryText()), 1L, Long::sum);
+        }
+
+        boolean postgres = resolveDialect() == SqlDialect.POSTGRES;
+        List<Map.Entry<Instant, long[]>> statRows = new ArrayList<>(stats.entrySet());
+        jdbcTemplate.batchUpdate(postgres ? POSTGRES_STATS_UPSERT : H2_STATS_UPSERT, statRows, statRows.size(),
+                (statement, row) -> {
+                    setInstant(statement, 1, row.getKey());
+                    statement.setLong(2, row.getValue()[0]);
+                    statement.setLong(3, row.getValue()[1]);
+                });
+
+        List<Map.Entry<HitKey, Long>> queryRows = new ArrayList<>(hits.entrySet());
+        jdbcTemplate.batchUpdate(postgres ? POSTGRES_HITS_UPSERT : H2_HITS_UPSERT, queryRows, queryRows.size(),
+                (statement, row) -> {
+                    setInstant(statement, 1, row.getKey().bucket());
+                    statement.setString(2, row.getKey().queryText());
+                    statement.setLong(3, row.getValue());
+                });
+    }
+
+    public long totalQueries() {
+        Long total = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(query_count), 0) FROM query_stats_hourly", Long.class);
+        return total == null ? 0L : total;
+    }
+
+    public long queriesSince(Instant since) {
+        Long total = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(query_count), 0) FROM query_stats_hourly WHERE bucket_start >= ?",
+                Long.class,
+                OffsetDateTime.ofInstant(bucketOf(since), ZoneOffset.UTC)
+        );
+        return total == null ? 0L : total;
+    }
+
+    // Hourly buckets starting in [from, until); the range is served from the primary key.
+    public List<QueryHitCount> topQueries(Instant from, Instant until, int limit) {
+        return jdbcTemplate.query(
+                """
+                SELECT query_text, SUM(hits) AS total_hits
+                FROM query_hits_hourly
+                WHERE bucket_start >= ? AND bucket_start < ?
+                GROUP BY query_text
+                ORDER BY total_hits DESC
+                LIMIT ?""",
+                (resultSet, rowNumber) -> new QueryHitCount(resultSet.getString(1), resultSet.getLong(2)),
+                OffsetDateTime.ofInstant(bucketOf(from), ZoneOffset.UTC),
+                OffsetDateTime.ofInstant(until, ZoneOffset.UTC),
+                Math.max(1, limit)
+        );
+    }
+
+    public void backfillIfEmpty() {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM query_stats_hourly", Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+        jdbcTemplate.update("""
+                INSERT INTO query_stats_hourly (bucket_start, query_count, cache_hit_count)
+                SELECT DATE_TRUNC('hour', created_at), COUNT(*), SUM(CASE WHEN cache_hit THEN 1 ELSE 0 END)
+                FROM query_logs
+                GROUP BY DATE_TRUNC('hour', created_at)""");
+        jdbcTemplate.update("""
+                INSERT INTO query_hits_hourly (bucket_start, query_text, hits)
+                SELECT DATE_TRUNC('hour', created_at), query_text, COUNT(*)
+                FROM query_logs
+                GROUP BY DATE_TRUNC('hour', created_at), query_text""");
+    }
+
+    private Instant bucketOf(Instant instant) {
+        return (instant == null ? Instant.now() : instant).truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private SqlDialect resolveDialect() {
+        if (dialect == null) {
+            dialect = SqlDialect.detect(jdbcTemplate);
+        }
+        return dialect == null ? SqlDialect.OTHER : dialect;
+    }
+
+    private void setInstant(PreparedStatement statement, int index, Instant value) throws SQLException {
+        statement.setObject(index, OffsetDateTime.ofInstant(value, ZoneOffset.UTC));
+    }
+
+    private record HitKey(Instant bucket, String queryText) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.searchengine.persistence;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "query_stats_hourly")
+public class QueryStatsHourlyEntity {
+
+    @Id
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(name = "query_count", nullable = false)
+    private long queryCount;
+
+    @Column(name = "cache_hit_count", nullable = false)
+    private long cacheHitCount;
+
+    public Instant getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(Instant bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public long getQueryCount() {
+        return queryCount;
+    }
+
+    public void setQueryCount(long queryCount) {
+        this.queryCount = queryCount;
+    }
+
+    public long getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    public void setCacheHitCount(long cacheHitCount) {
+        this.cacheHitCount = cacheHitCount;
+    }
+}
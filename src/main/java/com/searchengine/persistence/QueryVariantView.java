@@ -0,0 +1,9 @@
+package com.searchengine.persistence;
+
+public interface QueryVariantView {
+    String getQueryText();
+    String getSort();
+    String getTags();
+    int getLimitValue();
+    long getHits();
+}
@@ -0,0 +1,31 @@
+package com.searchengine.persistence;
+
+import java.util.Locale;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public enum SqlDialect {
+    POSTGRES,
+    H2,
+    OTHER;
+
+    public static SqlDialect detect(JdbcTemplate jdbcTemplate) {
+        try {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()
+            );
+            String normalized = product == null ? "" : product.toLowerCase(Locale.ROOT);
+            if (normalized.contains("postgres")) {
+                return POSTGRES;
+            }
+            if (normalized.contains("h2")) {
+                return H2;
+            }
+            return OTHER;
+        } catch (DataAccessException ignored) {
+            return null;
+        }
+    }
+}
@@ -1,40 +1,64 @@
 package com.searchengine.service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import com.searchengine.api.dto.AnalyticsResponse;
+import com.searchengine.config.SearchProperties;
 import com.searchengine.persistence.DocumentRepository;
-import com.searchengine.persistence.QueryLogRepository;
 
 @Service
 public class AnalyticsService {
 
-    private final QueryLogRepository queryLogRepository;
     private final DocumentRepository documentRepository;
+    private final QueryLogService queryLogService;
+    private final LocalSearchIndex localSearchIndex;
+    private final SearchProperties searchProperties;
+    private volatile AnalyticsResponse cachedSummary;
 
-    public AnalyticsService(QueryLogRepository queryLogRepository, DocumentRepository documentRepository) {
-        this.queryLogRepository = queryLogRepository;
+    public AnalyticsService(
+            DocumentRepository documentRepository,
+            QueryLogService queryLogService,
+            LocalSearchIndex localSearchIndex,
+            SearchProperties searchProperties
+    ) {
         this.documentRepository = documentRepository;
+        this.queryLogService = queryLogService;
+        this.localSearchIndex = localSearchIndex;
+        this.searchProperties = searchProperties;
     }
 
     public AnalyticsResponse getSummary() {
         Instant now = Instant.now();
-        Instant since = now.minus(24, ChronoUnit.HOURS);
+        AnalyticsResponse cached = cachedSummary;
+        Duration cacheTtl = Duration.ofSeconds(Math.max(0, searchProperties.getAnalytics().getCacheSeconds()));
+        if (cached != null && now.isBefore(cached.generatedAt().plus(cacheTtl))) {
+            return cached;
+        }
 
-        long totalQueries = queryLogRepository.count();
-        long queriesLast24Hours = queryLogRepository.countByCreatedAtAfter(since);
-        long totalDocuments = documentRepository.count();
+        Instant since = now.minus(24, ChronoUnit.HOURS);
+        QueryLogSummary summary = queryLogService.summarize(since, 10);
+        long totalDocuments = searchProperties.getLocalIndex().isEnabled()
+                ? localSearchIndex.size()
+                : documentRepository.count();
 
-        List<AnalyticsResponse.TopQuery> topQueries = queryLogRepository.findTopQueries(PageRequest.of(0, 10))
+        List<AnalyticsResponse.TopQuery> topQueries = summary.topQueries()
                 .stream()
-                .map(row -> new AnalyticsResponse.TopQuery(row.getQueryText(), row.getHits()))
+                .map(row -> new AnalyticsResponse.TopQuery(row.queryText(), row.hits()))
                 .toList();
 
-        return new AnalyticsResponse(now, totalQueries, queriesLast24Hours, totalDocuments, topQueries);
+        AnalyticsResponse response = new AnalyticsResponse(
+                now,
+                summary.totalQueries(),
+                summary.queriesSince(),
+                totalDocuments,
+                topQueries
+        );
+        cachedSummary = response;
+        return response;
     }
 }
@@ -1,206 +1,492 @@
 package com.searchengine.service;
 
-import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.HtmlUtils;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.searchengine.api.dto.SnippetUpdate;
 import com.searchengine.config.SearchProperties;
 import com.searchengine.domain.ProviderSearchResult;
 import com.searchengine.domain.SourceType;
 import com.searchengine.integration.StackExchangeBackoffManager;
+import com.searchengine.integration.StackExchangeRateGovernor;
+import com.searchengine.integration.StackExchangeResponseReader;
 import com.searchengine.persistence.DocumentEntity;
 import com.searchengine.persistence.DocumentRepository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
 @Service
 public class AsyncEnrichmentService {
 
     private static final Pattern STACKOVERFLOW_ID_PATTERN = Pattern.compile("/questions/(\\d+)");
+    private static final int MAX_IDS_PER_REQUEST = 100;
+    private static final Set<String> QUESTION_FIELDS = Set.of("question_id", "body", "accepted_answer_id");
+    private static final Set<String> ANSWER_FIELDS = Set.of("answer_id", "body");
+    private static final Duration DISPATCHER_STOP_TIMEOUT = Duration.ofSeconds(5);
 
     private final WebClient webClient;
     private final DocumentRepository documentRepository;
     private final SearchProperties searchProperties;
     private final Executor enrichmentExecutor;
     private final StackExchangeBackoffManager backoffManager;
+    private final StackExchangeRateGovernor rateGovernor;
+    private final LocalSearchIndex localSearchIndex;
     private final Semaphore globalSemaphore;
-    private final Map<String, Semaphore> perHostSemaphores = new ConcurrentHashMap<>();
+    // URLs queued or being fetched, so concurrent searches do not enrich the same document twice.
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final PriorityWorkQueue<ProviderSearchResult> queue;
+    private volatile Thread dispatcher;
+    private final Counter questionCalls;
+    private final Counter answerCalls;
+    private final Timer questionFetch;
+    private final Timer answerFetch;
+    private final Timer permitWait;
+    private final Timer batchTime;
+    private final Counter executorRejections;
+    private final Counter rateLimitRejections;
+    // Hot feed of enriched previews for streaming searches; nothing is buffered for absent subscribers.
+    private final Sinks.Many<SnippetUpdate> snippetUpdates = Sinks.many().multicast().directBestEffort();
 
     public AsyncEnrichmentService(
             WebClient webClient,
             DocumentRepository documentRepository,
             SearchProperties searchProperties,
             @Qualifier("enrichmentExecutor") Executor enrichmentExecutor,
-            StackExchangeBackoffManager backoffManager
+            StackExchangeBackoffManager backoffManager,
+            StackExchangeRateGovernor rateGovernor,
+            LocalSearchIndex localSearchIndex,
+            MeterRegistry meterRegistry
     ) {
+        SearchProperties.Enrichment enrichment = searchProperties.getEnrichment();
         this.webClient = webClient;
         this.documentRepository = documentRepository;
         this.searchProperties = searchProperties;
         this.enrichmentExecutor = enrichmentExecutor;
         this.backoffManager = backoffManager;
-        this.globalSemaphore = new Semaphore(Math.max(1, searchProperties.getEnrichment().getMaxConcurrentFetches()));
+        this.rateGovernor = rateGovernor;
+        this.localSearchIndex = localSearchIndex;
+        this.globalSemaphore = new Semaphore(Math.max(1, enrichment.getMaxConcurrentFetches()));
+        this.questionCalls = Counter.builder("search.enrichment.api.calls").tag("endpoint", "questions").register(meterRegistry);
+        this.answerCalls = Counter.builder("search.enrichment.api.calls").tag("endpoint", "answers").register(meterRegistry);
+        this.questionFetch = fetchTimer("questions", meterRegistry);
+        this.answerFetch = fetchTimer("answers", meterRegistry);
+        // Queue wait is recorded by the queue itself (search.priority.queue.wait{queue=enrichment}); this is the
+        // further wait for a fetch permit once the dispatcher is ready to take a batch.
+        this.permitWait = Timer.builder("search.enrichment.permit.wait")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.batchTime = Timer.builder("search.enrichment.batch")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.executorRejections = Counter.builder("search.enrichment.rejected").tag("reason", "executor").register(meterRegistry);
+        this.rateLimitRejections = Counter.builder("search.enrichment.rejected").tag("reason", "rate_limit").register(meterRegistry);
+        Gauge.builder("search.enrichment.permits.available", globalSemaphore, Semaphore::availablePermits).register(meterRegistry);
+        Gauge.builder("search.enrichment.in.flight", inFlight, Set::size).register(meterRegistry);
+        this.queue = new PriorityWorkQueue<>(
+                "enrichment",
+                enrichment.getQueueCapacity(),
+                Duration.ofMillis(enrichment.getMaxJobAgeMillis()),
+                result -> inFlight.remove(result.url()),
+                meterRegistry
+        );
     }
 
-    public void enqueue(List<ProviderSearchResult> rankedCandidates) {
+    @PostConstruct
+    public void start() {
+        Thread thread = new Thread(this::runDispatcher, "enrichment-dispatcher");
+        thread.setDaemon(true);
+        dispatcher = thread;
+        thread.start();
+    }
+
+    public void enqueue(List<ProviderSearchResult> rankedCandidates, long queryPopularity) {
         SearchProperties.Enrichment enrichment = searchProperties.getEnrichment();
         if (!enrichment.isEnabled() || rankedCandidates == null || rankedCandidates.isEmpty()) {
             return;
         }
 
         int topN = Math.min(Math.max(1, enrichment.getTopN()), rankedCandidates.size());
-        List<ProviderSearchResult> candidates = rankedCandidates.subList(0, topN);
-
-        for (ProviderSearchResult candidate : candidates) {
-            CompletableFuture.runAsync(() -> enrichAndPersist(candidate), enrichmentExecutor);
+        double popularity = 1.0 + Math.log1p(Math.max(0L, queryPopularity));
+        for (int rank = 0; rank < topN; rank++) {
+            ProviderSearchResult candidate = rankedCandidates.get(rank);
+            String url = candidate.url();
+            if (url == null || url.isBlank() || !inFlight.add(url)) {
+                continue;
+            }
+            if (!queue.offer(candidate, popularity / (rank + 1))) {
+                inFlight.remove(url);
+            }
         }
     }
 
-    private void enrichAndPersist(ProviderSearchResult result) {
-        URI uri;
-        try {
-            uri = URI.create(result.url());
-        } catch (Exception ignored) {
-            return;
-        }
+    // Queued or being fetched. A preview, when there is one, is published before its URL stops being pending.
+    public boolean isPending(String url) {
+        return inFlight.contains(url);
+    }
 
-        String host = uri.getHost() == null ? "unknown" : uri.getHost();
-        Semaphore hostSemaphore = perHostSemaphores.computeIfAbsent(
-                host,
-                ignored -> new Semaphore(Math.max(1, searchProperties.getEnrichment().getPerHostLimit()))
-        );
+    public Flux<SnippetUpdate> snippetUpdates() {
+        return snippetUpdates.asFlux();
+    }
 
-        if (!globalSemaphore.tryAcquire()) {
+    // Stops taking batches; batches already handed to the enrichment executor finish with it.
+    @PreDestroy
+    public void shutdown() {
+        Thread thread = dispatcher;
+        if (thread == null) {
             return;
         }
-        if (!hostSemaphore.tryAcquire()) {
+        thread.interrupt();
+        try {
+            thread.join(DISPATCHER_STOP_TIMEOUT.toMillis());
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // A batch is only taken once a fetch permit is free, so while workers are busy jobs wait in the queue and the
+    // next batch is the highest-priority work at that moment rather than whatever was submitted first.
+    private void runDispatcher() {
+        SearchProperties.Enrichment enrichment = searchProperties.getEnrichment();
+        int batchSize = Math.min(MAX_IDS_PER_REQUEST, Math.max(1, enrichment.getBatchSize()));
+        Duration window = Duration.ofMillis(Math.max(1, enrichment.getBatchWindowMillis()));
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                while (backoffManager.isBackoffActive()) {
+                    Thread.sleep(Math.max(window.toMillis(), backoffManager.remainingBackoff().toMillis()));
+                }
+                // Interactive searches own the rate budget; jobs keep their place in the queue until it frees up.
+                while (!rateGovernor.admits(StackExchangeRateGovernor.Priority.BACKGROUND)) {
+                    Thread.sleep(window.toMillis());
+                }
+                long waitingSince = System.nanoTime();
+                globalSemaphore.acquire();
+                permitWait.record(System.nanoTime() - waitingSince, TimeUnit.NANOSECONDS);
+                List<ProviderSearchResult> batch;
+                try {
+                    batch = queue.take(batchSize, window);
+                } catch (InterruptedException exception) {
+                    globalSemaphore.release();
+                    throw exception;
+                }
+                dispatch(batch);
+            } catch (InterruptedException ignored) {
+                return;
+            }
+        }
+    }
+
+    private void dispatch(List<ProviderSearchResult> batch) {
+        try {
+            enrichmentExecutor.execute(() -> {
+                try {
+                    enrichAndPersist(batch);
+                } finally {
+                    globalSemaphore.release();
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            executorRejections.increment();
             globalSemaphore.release();
-            return;
+            release(batch);
         }
+    }
 
+    private void enrichAndPersist(List<ProviderSearchResult> batch) {
+        long startedAt = System.nanoTime();
         try {
-            EnrichedContent enriched = fetchEnrichedSnippet(result);
-            if (enriched == null || enriched.snippet().isBlank()) {
+            Map<String, ProviderSearchResult> byUrl = new LinkedHashMap<>();
+            for (ProviderSearchResult result : batch) {
+                byUrl.put(result.url(), result);
+            }
+
+            Map<String, DocumentEntity> existing = new HashMap<>();
+            for (DocumentEntity entity : documentRepository.findAllById(byUrl.keySet())) {
+                existing.put(entity.getUrl(), entity);
+            }
+            Instant now = Instant.now();
+            Instant refreshBefore = now.minus(Duration.ofHours(searchProperties.getEnrichment().getRefreshAfterHours()));
+            byUrl.values().removeIf(result -> {
+                DocumentEntity entity = existing.get(result.url());
+                return entity != null && entity.getEnrichedAt() != null && entity.getEnrichedAt().isAfter(refreshBefore);
+            });
+            if (byUrl.isEmpty()) {
                 return;
             }
 
-            DocumentEntity entity = documentRepository.findById(result.url()).orElseGet(DocumentEntity::new);
-            entity.setQuestionId(result.questionId());
-            entity.setUrl(result.url());
-            entity.setSource(result.source().name());
-            entity.setTitle(result.title());
-            entity.setQuestionText(enriched.questionText());
-            entity.setBestAnswerText(enriched.bestAnswerText());
-            entity.setNormalizedText(normalize((result.title() == null ? "" : result.title()) + " " + enriched.snippet()));
-            entity.setMetadataJson(mergeMetadata(result.metadataJson(), "{\"enriched\":true,\"enriched_at\":\"" + Instant.now() + "\"}"));
-            entity.setTags(String.join(",", result.tags()));
-            entity.setFetchedAt(Instant.now());
-            documentRepository.save(entity);
+            Map<Long, EnrichedContent> enrichedByQuestion = enrichStackOverflow(byUrl.values());
+
+            List<DocumentEntity> updated = new ArrayList<>();
+            List<DocumentEntity> changed = new ArrayList<>();
+            List<SnippetUpdate> previews = new ArrayList<>();
+            for (ProviderSearchResult result : byUrl.values()) {
+                EnrichedContent enriched = result.source() == SourceType.STACKOVERFLOW
+                        ? enrichedByQuestion.get(questionId(result))
+                        : new EnrichedContent("", "", result.snippet());
+                if (enriched == null || enriched.snippet().isBlank()) {
+                    continue;
+                }
+                DocumentEntity entity = existing.getOrDefault(result.url(), new DocumentEntity());
+                String contentHash = contentHash(enriched);
+                if (!contentHash.equals(entity.getContentHash())) {
+                    changed.add(entity);
+                }
+                apply(entity, result, enriched, contentHash, now);
+                updated.add(entity);
+                previews.add(new SnippetUpdate(result.questionId(), result.url(), preview(enriched)));
+            }
+            if (!updated.isEmpty()) {
+                documentRepository.saveAll(updated);
+                // A refresh that found the same bodies only moves enriched_at; the index already has those terms.
+                localSearchIndex.indexAll(changed);
+                publish(previews);
+            }
+        } catch (RuntimeException ignored) {
         } finally {
-            hostSemaphore.release();
-            globalSemaphore.release();
+            release(batch);
+            batchTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
         }
     }
 
-    private EnrichedContent fetchEnrichedSnippet(ProviderSearchResult result) {
-        if (result.source() != SourceType.STACKOVERFLOW) {
-            return new EnrichedContent("", "", result.snippet());
+    // Enrichment workers run concurrently and a sink accepts one emitter at a time.
+    private void publish(List<SnippetUpdate> previews) {
+        synchronized (snippetUpdates) {
+            for (SnippetUpdate preview : previews) {
+                snippetUpdates.tryEmitNext(preview);
+            }
         }
-        return enrichStackOverflow(result.url());
     }
 
-    private EnrichedContent enrichStackOverflow(String url) {
+    private String preview(EnrichedContent enriched) {
+        if (!enriched.bestAnswerText().isBlank()) {
+            return truncate("A: " + enriched.bestAnswerText(), 280);
+        }
+        return enriched.questionText().isBlank() ? truncate(enriched.snippet(), 280) : truncate(enriched.questionText(), 280);
+    }
+
+    private void release(List<ProviderSearchResult> batch) {
+        for (ProviderSearchResult result : batch) {
+            inFlight.remove(result.url());
+        }
+    }
+
+    private void apply(DocumentEntity entity, ProviderSearchResult result, EnrichedContent enriched, String contentHash, Instant now) {
+        entity.setQuestionId(result.questionId());
+        entity.setUrl(result.url());
+        entity.setSource(result.source().name());
+        entity.setTitle(result.title());
+        entity.setQuestionText(enriched.questionText());
+        entity.setBestAnswerText(enriched.bestAnswerText());
+        entity.setNormalizedText(normalize((result.title() == null ? "" : result.title()) + " " + enriched.snippet()));
+        entity.setMetadataJson(result.metadataJson());
+        entity.setTags(String.join(",", result.tags()));
+        entity.setSnippet(result.snippet());
+        entity.setQuestionScore(result.questionScore());
+        entity.setAnswered(result.answered());
+        entity.setAcceptedAnswerId(result.acceptedAnswerId());
+        entity.setPublishedAt(result.publishedAt());
+        entity.setFetchedAt(now);
+        entity.setEnrichedAt(now);
+        entity.setContentHash(contentHash);
+    }
+
+    private String contentHash(EnrichedContent enriched) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(enriched.questionText().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(enriched.bestAnswerText().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(enriched.snippet().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private Long questionId(ProviderSearchResult result) {
+        if (result.questionId() != null) {
+            return result.questionId();
+        }
+        Matcher matcher = STACKOVERFLOW_ID_PATTERN.matcher(result.url());
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    // One /questions call for every question in the batch and one /answers call for their accepted answers.
+    private Map<Long, EnrichedContent> enrichStackOverflow(Collection<ProviderSearchResult> results) {
         if (backoffManager.isBackoffActive()) {
-            return EnrichedContent.empty();
+            return Map.of();
+        }
+
+        Set<Long> questionIds = new LinkedHashSet<>();
+        for (ProviderSearchResult result : results) {
+            Long questionId = result.source() == SourceType.STACKOVERFLOW ? questionId(result) : null;
+            if (questionId != null) {
+                questionIds.add(questionId);
+            }
+        }
+        if (questionIds.isEmpty()) {
+            return Map.of();
+        }
+
+        try {
+            List<QuestionBody> questions = fetchByIds(
+                    "/2.3/questions/{ids}", questionIds, questionCalls, questionFetch, QUESTION_FIELDS, this::toQuestion
+            );
+            if (questions.isEmpty()) {
+                return Map.of();
+            }
+
+            Map<Long, String> questionBodies = new LinkedHashMap<>();
+            Map<Long, Long> acceptedAnswerIds = new HashMap<>();
+            for (QuestionBody question : questions) {
+                questionBodies.put(question.questionId(), question.body());
+                if (question.acceptedAnswerId() > 0) {
+                    acceptedAnswerIds.put(question.questionId(), question.acceptedAnswerId());
+                }
+            }
+
+            Map<Long, String> answerBodies = fetchAnswerBodies(acceptedAnswerIds.values());
+
+            Map<Long, EnrichedContent> enriched = new HashMap<>();
+            for (Map.Entry<Long, String> question : questionBodies.entrySet()) {
+                String questionBody = question.getValue();
+                Long acceptedAnswerId = acceptedAnswerIds.get(question.getKey());
+                String answerBody = acceptedAnswerId == null ? "" : answerBodies.getOrDefault(acceptedAnswerId, "");
+                String combined = (questionBody.isBlank() ? "" : "Q: " + questionBody) +
+                        (answerBody.isBlank() ? "" : " A: " + answerBody);
+                enriched.put(question.getKey(), new EnrichedContent(questionBody, answerBody, truncate(combined, 900)));
+            }
+            return enriched;
+        } catch (RuntimeException ignored) {
+            return Map.of();
         }
+    }
 
-        Matcher matcher = STACKOVERFLOW_ID_PATTERN.matcher(url);
-        if (!matcher.find()) {
-            return EnrichedContent.empty();
+    private Map<Long, String> fetchAnswerBodies(Collection<Long> answerIds) {
+        if (answerIds.isEmpty() || backoffManager.isBackoffActive()) {
+            return Map.of();
         }
-        String questionId = matcher.group(1);
+        List<AnswerBody> answers = fetchByIds("/2.3/answers/{ids}", answerIds, answerCalls, answerFetch, ANSWER_FIELDS, this::toAnswer);
+        Map<Long, String> bodies = new HashMap<>();
+        for (AnswerBody answer : answers) {
+            bodies.put(answer.answerId(), answer.body());
+        }
+        return bodies;
+    }
+
+    // Returns no items when the rate governor refuses the call. Bodies are stripped of HTML as each item is read,
+    // so a withbody page is never held in memory whole.
+    private <T> List<T> fetchByIds(
+            String path,
+            Collection<Long> ids,
+            Counter calls,
+            Timer latency,
+            Set<String> itemFields,
+            Function<StackExchangeResponseReader.Item, T> mapper
+    ) {
         Duration timeout = Duration.ofMillis(searchProperties.getEnrichment().getFetchTimeoutMillis());
+        long waitNanos = rateGovernor.reserve(StackExchangeRateGovernor.Priority.BACKGROUND, timeout);
+        if (waitNanos < 0) {
+            rateLimitRejections.increment();
+            return List.of();
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+            return List.of();
+        }
         String apiKey = searchProperties.getProviders().getStackoverflow().getApiKey();
+        String joinedIds = ids.stream().map(String::valueOf).collect(Collectors.joining(";"));
 
-        try {
-            UriComponentsBuilder questionUriBuilder = UriComponentsBuilder
-                    .fromUriString(searchProperties.getProviders().getStackoverflow().getBaseUrl() + "/2.3/questions/{id}")
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder
+                .fromUriString(searchProperties.getProviders().getStackoverflow().getBaseUrl() + path)
                 .queryParam("order", "desc")
                 .queryParam("sort", "activity")
                 .queryParam("site", "stackoverflow")
+                .queryParam("pagesize", Math.min(MAX_IDS_PER_REQUEST, ids.size()))
                 .queryParam("filter", "withbody");
 
-            if (StringUtils.hasText(apiKey)) {
-            questionUriBuilder.queryParam("key", apiKey);
-            }
-
-            JsonNode questionResponse = webClient.get()
-                .uri(questionUriBuilder.buildAndExpand(questionId).encode().toUri())
-                    .retrieve()
-                    .bodyToMono(JsonNode.class)
-                    .block(timeout);
-
-            backoffManager.registerFromResponse(questionResponse);
+        if (StringUtils.hasText(apiKey)) {
+            uriBuilder.queryParam("key", apiKey);
+        }
 
-            if (questionResponse == null || !questionResponse.path("items").isArray() || questionResponse.path("items").isEmpty()) {
-                return EnrichedContent.empty();
-            }
+        calls.increment();
+        StackExchangeResponseReader.Envelope<T> response = latency.record(() -> webClient.get()
+                .uri(uriBuilder.buildAndExpand(joinedIds).encode().toUri())
+                .retrieve()
+                .bodyToFlux(DataBuffer.class)
+                .as(body -> StackExchangeResponseReader.read(body, itemFields, mapper))
+                .block(timeout));
+        if (response == null) {
+            return List.of();
+        }
+        backoffManager.registerBackoff(response.backoffSeconds());
+        rateGovernor.registerQuota(response.quotaRemaining(), response.quotaMax());
+        return response.items();
+    }
 
-            JsonNode question = questionResponse.path("items").get(0);
-            String questionBody = stripHtml(question.path("body").asText(""));
-            long acceptedAnswerId = question.path("accepted_answer_id").asLong(0L);
-            String answerBody = "";
-
-            if (acceptedAnswerId > 0) {
-                UriComponentsBuilder answerUriBuilder = UriComponentsBuilder
-                    .fromUriString(searchProperties.getProviders().getStackoverflow().getBaseUrl() + "/2.3/answers/{id}")
-                    .queryParam("order", "desc")
-                    .queryParam("sort", "activity")
-                    .queryParam("site", "stackoverflow")
-                    .queryParam("filter", "withbody");
-
-                if (StringUtils.hasText(apiKey)) {
-                    answerUriBuilder.queryParam("key", apiKey);
-                }
+    private QuestionBody toQuestion(StackExchangeResponseReader.Item item) {
+        long questionId = item.asLong("question_id");
+        return questionId <= 0 ? null : new QuestionBody(questionId, stripHtml(item.text("body")), item.asLong("accepted_answer_id"));
+    }
 
-                JsonNode answerResponse = webClient.get()
-                    .uri(answerUriBuilder.buildAndExpand(acceptedAnswerId).encode().toUri())
-                        .retrieve()
-                        .bodyToMono(JsonNode.class)
-                        .block(timeout);
+    private AnswerBody toAnswer(StackExchangeResponseReader.Item item) {
+        long answerId = item.asLong("answer_id");
+        return answerId <= 0 ? null : new AnswerBody(answerId, stripHtml(item.text("body")));
+    }
 
-                backoffManager.registerFromResponse(answerResponse);
+    private record QuestionBody(long questionId, String body, long acceptedAnswerId) {
+    }
 
-                if (answerResponse != null && answerResponse.path("items").isArray() && !answerResponse.path("items").isEmpty()) {
-                    answerBody = stripHtml(answerResponse.path("items").get(0).path("body").asText(""));
-                }
-            }
+    private record AnswerBody(long answerId, String body) {
+    }
 
-            String combined = (questionBody.isBlank() ? "" : "Q: " + questionBody) +
-                    (answerBody.isBlank() ? "" : " A: " + answerBody);
-            return new EnrichedContent(questionBody, answerBody, truncate(combined, 900));
-        } catch (RuntimeException ignored) {
-            return EnrichedContent.empty();
-        }
+    private static Timer fetchTimer(String endpoint, MeterRegistry meterRegistry) {
+        return Timer.builder("search.enrichment.fetch")
+                .tag("endpoint", endpoint)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     private record EnrichedContent(String questionText, String bestAnswerText, String snippet) {
-        private static EnrichedContent empty() {
-            return new EnrichedContent("", "", "");
-        }
     }
 
     private String stripHtml(String input) {
@@ -226,18 +512,4 @@ public class AsyncEnrichmentService {
         }
         return input.replaceAll("\\s+", " ").trim().toLowerCase();
     }
-
-    private String mergeMetadata(String base, String extra) {
-        if (base == null || base.isBlank()) {
-            return extra;
-        }
-        if (extra == null || extra.isBlank()) {
-            return base;
-        }
-        return "{\"base\":" + quote(base) + ",\"phase2\":" + quote(extra) + "}";
-    }
-
-    private String quote(String value) {
-        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
-    }
 }
@@ -0,0 +1,78 @@
+package com.searchengine.service;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.searchengine.config.SearchProperties;
+
+// BM25F over two fields (title, body): field term frequencies are length-normalized and weighted
+// before a single saturation, so a term repeated across fields is not counted twice.
+final class Bm25Scorer {
+
+    private final String[] terms;
+    private final double[] idfs;
+    private final double idfSum;
+    private final double k1;
+    private final double titleWeight;
+    private final double bodyWeight;
+    private final double titleB;
+    private final double bodyB;
+    private final double averageTitleLength;
+    private final double averageBodyLength;
+
+    Bm25Scorer(Collection<String> queryTerms, CorpusStatistics statistics, SearchProperties.Ranking.Bm25 parameters) {
+        this.terms = queryTerms.toArray(String[]::new);
+        this.idfs = new double[terms.length];
+        double sum = 0.0;
+        int documentCount = statistics.documentCount();
+        for (int index = 0; index < terms.length; index++) {
+            int documentFrequency = Math.min(documentCount, statistics.documentFrequency(terms[index]));
+            idfs[index] = Math.log(1.0 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            sum += idfs[index];
+        }
+        this.idfSum = sum;
+        this.k1 = Math.max(0.0, parameters.getK1());
+        this.titleWeight = Math.max(0.0, parameters.getTitleWeight());
+        this.bodyWeight = Math.max(0.0, parameters.getBodyWeight());
+        this.titleB = clamp(parameters.getTitleB());
+        this.bodyB = clamp(parameters.getBodyB());
+        this.averageTitleLength = Math.max(1.0, statistics.averageTitleLength());
+        this.averageBodyLength = Math.max(1.0, statistics.averageBodyLength());
+    }
+
+    // Normalized to [0, 1) by the idf mass of the query, so the result stays on the same scale as the
+    // quality and freshness signals it is summed with.
+    double score(List<String> titleTokens, List<String> bodyTokens) {
+        if (idfSum <= 0.0) {
+            return 0.0;
+        }
+        double titleNorm = 1.0 - titleB + titleB * titleTokens.size() / averageTitleLength;
+        double bodyNorm = 1.0 - bodyB + bodyB * bodyTokens.size() / averageBodyLength;
+
+        double score = 0.0;
+        for (int index = 0; index < terms.length; index++) {
+            int titleFrequency = count(titleTokens, terms[index]);
+            int bodyFrequency = count(bodyTokens, terms[index]);
+            double frequency = titleWeight * titleFrequency / titleNorm + bodyWeight * bodyFrequency / bodyNorm;
+            if (frequency <= 0.0) {
+                continue;
+            }
+            score += idfs[index] * frequency / (k1 + frequency);
+        }
+        return score / idfSum;
+    }
+
+    private static int count(List<String> tokens, String term) {
+        int count = 0;
+        for (String token : tokens) {
+            if (token.equals(term)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1.0, value));
+    }
+}
@@ -0,0 +1,144 @@
+package com.searchengine.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.searchengine.config.SearchProperties;
+import com.searchengine.integration.StackExchangeBackoffManager;
+import com.searchengine.integration.StackExchangeRateGovernor;
+import com.searchengine.persistence.QueryLogRepository;
+import com.searchengine.persistence.QueryVariantView;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Keeps the most requested first pages in cache by recomputing them shortly before they go stale, spending at
+// most search.warmup.max-quota-fraction of the daily StackExchange quota on it.
+@Component
+public class CacheWarmer {
+
+    // Daily quota StackExchange grants without an app key; used until a response reports quota_max.
+    private static final int ANONYMOUS_DAILY_QUOTA = 300;
+    private static final Duration WARM_TIMEOUT = Duration.ofSeconds(30);
+
+    private final SearchService searchService;
+    private final QueryLogRepository queryLogRepository;
+    private final StackExchangeBackoffManager backoffManager;
+    private final StackExchangeRateGovernor rateGovernor;
+    private final SearchProperties searchProperties;
+    private final Executor cacheRefreshExecutor;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final Counter warmed;
+    private final Counter fresh;
+    private final Counter partial;
+    private LocalDate budgetDay;
+    private long callsToday;
+
+    public CacheWarmer(
+            SearchService searchService,
+            QueryLogRepository queryLogRepository,
+            StackExchangeBackoffManager backoffManager,
+            StackExchangeRateGovernor rateGovernor,
+            SearchProperties searchProperties,
+            @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor,
+            MeterRegistry meterRegistry
+    ) {
+        this.searchService = searchService;
+        this.queryLogRepository = queryLogRepository;
+        this.backoffManager = backoffManager;
+        this.rateGovernor = rateGovernor;
+        this.searchProperties = searchProperties;
+        this.cacheRefreshExecutor = cacheRefreshExecutor;
+        this.warmed = Counter.builder("search.cache.warmup").tag("result", "warmed").register(meterRegistry);
+        this.fresh = Counter.builder("search.cache.warmup").tag("result", "fresh").register(meterRegistry);
+        this.partial = Counter.builder("search.cache.warmup").tag("result", "partial").register(meterRegistry);
+    }
+
+    // A redeploy starts with an empty L1 and possibly expired Redis entries, so warm once as soon as we are up.
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmOnStartup() {
+        if (!searchProperties.getWarmup().isEnabled()) {
+            return;
+        }
+        try {
+            cacheRefreshExecutor.execute(this::warm);
+        } catch (RejectedExecutionException ignored) {
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${search.warmup.interval-seconds:240}",
+            fixedDelayString = "${search.warmup.interval-seconds:240}",
+            timeUnit = TimeUnit.SECONDS
+    )
+    public void warm() {
+        SearchProperties.Warmup warmup = searchProperties.getWarmup();
+        if (!warmup.isEnabled() || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Instant since = Instant.now().minus(Duration.ofHours(Math.max(1, warmup.getLookbackHours())));
+            List<QueryVariantView> variants = queryLogRepository.findTopQueryVariants(
+                    since,
+                    PageRequest.of(0, Math.max(1, warmup.getTopQueries()))
+            );
+            Duration refreshAhead = Duration.ofSeconds(Math.max(0, warmup.getRefreshAheadSeconds()));
+            for (QueryVariantView variant : variants) {
+                if (backoffManager.isBackoffActive()
+                        || !rateGovernor.admits(StackExchangeRateGovernor.Priority.BACKGROUND)
+                        || !withinBudget(warmup)) {
+                    return;
+                }
+                SearchService.WarmResult result = searchService
+                        .warm(variant.getQueryText(), variant.getLimitValue(), variant.getSort(), splitTags(variant.getTags()), refreshAhead)
+                        .block(WARM_TIMEOUT);
+                if (result == null || !result.refreshed()) {
+                    fresh.increment();
+                    continue;
+                }
+                // Charged for every granted call (an invalid-key retry is two), even when a partial response was not kept.
+                callsToday += result.providerCalls();
+                (result.cached() ? warmed : partial).increment();
+            }
+        } catch (RuntimeException ignored) {
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private boolean withinBudget(SearchProperties.Warmup warmup) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        if (!today.equals(budgetDay)) {
+            budgetDay = today;
+            callsToday = 0;
+        }
+        int quotaMax = rateGovernor.state().quotaMax();
+        long dailyQuota = quotaMax > 0 ? quotaMax : ANONYMOUS_DAILY_QUOTA;
+        return callsToday < (long) (dailyQuota * Math.max(0.0, warmup.getMaxQuotaFraction()));
+    }
+
+    private List<String> splitTags(String tags) {
+        if (tags == null || tags.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(tags.split(","))
+                .map(String::trim)
+                .filter(tag -> !tag.isBlank())
+                .toList();
+    }
+}
@@ -0,0 +1,28 @@
+package com.searchengine.service;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.searchengine.api.dto.SearchResponse;
+
+public record CachedSearchResponse(
+        SearchResponse response,
+        Instant softExpiresAt,
+        Instant hardExpiresAt,
+        long computeMillis
+) {
+
+    public boolean isStale(Instant now) {
+        return !now.isBefore(softExpiresAt);
+    }
+
+    // XFetch: the closer to soft expiry and the slower the response was to compute, the likelier an early refresh.
+    public boolean shouldRefreshEarly(Instant now, double beta) {
+        if (beta <= 0 || computeMillis <= 0) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        long headStartMillis = (long) (-computeMillis * beta * Math.log(random));
+        return !now.plusMillis(headStartMillis).isBefore(softExpiresAt);
+    }
+}
@@ -0,0 +1,54 @@
+package com.searchengine.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.searchengine.domain.ProviderSearchResult;
+
+public record CorpusStatistics(
+        int documentCount,
+        double averageTitleLength,
+        double averageBodyLength,
+        Map<String, Integer> documentFrequencies
+) {
+
+    public static final CorpusStatistics EMPTY = new CorpusStatistics(0, 0.0, 0.0, Map.of());
+
+    public int documentFrequency(String term) {
+        return documentFrequencies.getOrDefault(term, 0);
+    }
+
+    // Used when no corpus is available: the candidate set itself stands in for it.
+    public static CorpusStatistics fromCandidates(Collection<String> terms, List<ProviderSearchResult> candidates) {
+        if (candidates.isEmpty()) {
+            return EMPTY;
+        }
+        long titleLength = 0;
+        long bodyLength = 0;
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (ProviderSearchResult candidate : candidates) {
+            List<String> titleTokens = TextTokenizer.tokenize(candidate.title());
+            List<String> bodyTokens = TextTokenizer.tokenize(candidate.snippet());
+            titleLength += titleTokens.size();
+            bodyLength += bodyTokens.size();
+
+            Set<String> present = new HashSet<>(titleTokens);
+            present.addAll(bodyTokens);
+            for (String term : terms) {
+                if (present.contains(term)) {
+                    frequencies.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+        return new CorpusStatistics(
+                candidates.size(),
+                (double) titleLength / candidates.size(),
+                (double) bodyLength / candidates.size(),
+                frequencies
+        );
+    }
+}
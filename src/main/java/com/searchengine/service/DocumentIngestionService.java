@@ -0,0 +1,159 @@
+package com.searchengine.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import com.searchengine.config.SearchProperties;
+import com.searchengine.domain.ProviderSearchResult;
+import com.searchengine.persistence.DocumentBulkWriter;
+import com.searchengine.persistence.DocumentEntity;
+import com.searchengine.persistence.DocumentRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class DocumentIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentIngestionService.class);
+
+    private final DocumentBulkWriter bulkWriter;
+    private final DocumentRepository documentRepository;
+    private final LocalSearchIndex localSearchIndex;
+    private final WriteBehindQueue<DocumentEntity> queue;
+    private final Counter bulkFailures;
+
+    public DocumentIngestionService(
+            DocumentBulkWriter bulkWriter,
+            DocumentRepository documentRepository,
+            LocalSearchIndex localSearchIndex,
+            SearchProperties searchProperties,
+            MeterRegistry meterRegistry
+    ) {
+        SearchProperties.Ingestion ingestion = searchProperties.getIngestion();
+        this.bulkWriter = bulkWriter;
+        this.documentRepository = documentRepository;
+        this.localSearchIndex = localSearchIndex;
+        this.bulkFailures = Counter.builder("search.ingestion.bulk.failures").register(meterRegistry);
+        this.queue = new WriteBehindQueue<>(
+                "documents",
+                ingestion.getQueueCapacity(),
+                ingestion.getBatchSize(),
+                Duration.ofMillis(ingestion.getFlushIntervalMillis()),
+                ingestion.getOverflowPolicy(),
+                Duration.ofMillis(ingestion.getBlockTimeoutMillis()),
+                this::writeBatch,
+                meterRegistry
+        );
+    }
+
+    public void enqueue(List<ProviderSearchResult> results) {
+        if (results == null || results.isEmpty()) {
+            return;
+        }
+        List<DocumentEntity> entities = results.stream()
+                .filter(result -> result.url() != null && !result.url().isBlank())
+                .map(this::toEntity)
+                .toList();
+        localSearchIndex.indexAll(entities);
+        for (DocumentEntity entity : entities) {
+            queue.offer(entity);
+        }
+    }
+
+    public void flush() {
+        queue.flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queue.close();
+    }
+
+    private void writeBatch(List<DocumentEntity> batch) {
+        Map<String, DocumentEntity> byUrl = new LinkedHashMap<>();
+        for (DocumentEntity entity : batch) {
+            byUrl.put(entity.getUrl(), entity);
+        }
+        List<DocumentEntity> coalesced = new ArrayList<>(byUrl.values());
+        boolean written;
+        try {
+            written = bulkWriter.upsert(coalesced);
+        } catch (DataAccessException exception) {
+            bulkFailures.increment();
+            log.warn("Bulk upsert of {} documents failed, saving them one by one", coalesced.size(), exception);
+            written = false;
+        }
+        if (!written) {
+            persistIndividually(coalesced);
+        }
+    }
+
+    private void persistIndividually(List<DocumentEntity> documents) {
+        List<DocumentEntity> entities = new ArrayList<>();
+        for (DocumentEntity document : documents) {
+            if (document.getQuestionId() != null) {
+                documentRepository.findByQuestionId(document.getQuestionId())
+                        .ifPresent(existing -> document.setUrl(existing.getUrl()));
+            }
+            entities.add(document);
+        }
+        Map<String, DocumentEntity> existingByUrl = new HashMap<>();
+        for (DocumentEntity existing : documentRepository.findAllById(entities.stream().map(DocumentEntity::getUrl).toList())) {
+            existingByUrl.put(existing.getUrl(), existing);
+        }
+        for (DocumentEntity entity : entities) {
+            keepEnrichment(entity, existingByUrl.get(entity.getUrl()));
+        }
+        documentRepository.saveAll(entities);
+    }
+
+    // Same rule as the bulk upsert: a search excerpt never replaces enriched bodies.
+    private void keepEnrichment(DocumentEntity entity, DocumentEntity existing) {
+        if (existing == null || existing.getEnrichedAt() == null) {
+            return;
+        }
+        entity.setQuestionText(existing.getQuestionText());
+        entity.setBestAnswerText(existing.getBestAnswerText());
+        entity.setNormalizedText(existing.getNormalizedText());
+        entity.setEnrichedAt(existing.getEnrichedAt());
+        entity.setContentHash(existing.getContentHash());
+    }
+
+    private DocumentEntity toEntity(ProviderSearchResult result) {
+        DocumentEntity entity = new DocumentEntity();
+        entity.setQuestionId(result.questionId());
+        entity.setUrl(result.url());
+        entity.setSource(result.source().name());
+        entity.setTitle(result.title());
+        entity.setNormalizedText(normalize(result.title() + " " + result.snippet()));
+        entity.setMetadataJson(result.metadataJson());
+        entity.setTags(String.join(",", result.tags()));
+        entity.setSnippet(result.snippet());
+        entity.setQuestionScore(result.questionScore());
+        entity.setAnswered(result.answered());
+        entity.setAcceptedAnswerId(result.acceptedAnswerId());
+        entity.setPublishedAt(result.publishedAt());
+        entity.setFetchedAt(Instant.now());
+        return entity;
+    }
+
+    private String normalize(String input) {
+        if (input == null) {
+            return "";
+        }
+        return input.replaceAll("\\s+", " ").trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,362 @@
+package com.searchengine.service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import com.searchengine.config.SearchProperties;
+import com.searchengine.domain.ProviderSearchResult;
+import com.searchengine.domain.SourceType;
+import com.searchengine.integration.ProviderSearchPage;
+import com.searchengine.persistence.DocumentEntity;
+import com.searchengine.persistence.DocumentRepository;
+
+@Component
+public class LocalSearchIndex {
+
+    private static final double TITLE_WEIGHT = 2.0;
+    private static final int SNIPPET_LENGTH = 280;
+
+    private final DocumentRepository documentRepository;
+    private final SearchProperties searchProperties;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Postings per term keyed by document (identity), so replacing a document touches only its own terms.
+    private final Map<String, Map<IndexedDocument, Posting>> postingsByTerm = new HashMap<>();
+    private final Map<String, IndexedDocument> documentsByUrl = new HashMap<>();
+    // Ranking statistics over the fields Ranker scores (title and snippet), kept in step with every indexAll.
+    private final Map<String, Integer> documentFrequencies = new HashMap<>();
+    private long totalTitleLength;
+    private long totalBodyLength;
+
+    public LocalSearchIndex(DocumentRepository documentRepository, SearchProperties searchProperties) {
+        this.documentRepository = documentRepository;
+        this.searchProperties = searchProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadFromRepository() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        int batchSize = Math.max(1, searchProperties.getLocalIndex().getLoadBatchSize());
+        Page<DocumentEntity> page = documentRepository.findAll(PageRequest.of(0, batchSize, Sort.by("url")));
+        while (true) {
+            indexAll(page.getContent());
+            if (!page.hasNext()) {
+                return;
+            }
+            page = documentRepository.findAll(page.nextPageable());
+        }
+    }
+
+    public void index(DocumentEntity entity) {
+        indexAll(List.of(entity));
+    }
+
+    public void indexAll(Collection<DocumentEntity> entities) {
+        if (!isEnabled() || entities == null || entities.isEmpty()) {
+            return;
+        }
+
+        List<IndexedDocument> prepared = entities.stream()
+                .filter(entity -> entity.getUrl() != null && !entity.getUrl().isBlank())
+                .map(this::prepare)
+                .toList();
+
+        lock.writeLock().lock();
+        try {
+            for (IndexedDocument incoming : prepared) {
+                IndexedDocument previous = documentsByUrl.get(incoming.result.url());
+                // A search excerpt arriving after enrichment would drop the question and answer terms.
+                IndexedDocument document = previous != null && previous.enriched && !incoming.enriched
+                        ? withEnrichedBody(incoming, previous)
+                        : incoming;
+                documentsByUrl.put(document.result.url(), document);
+                if (previous != null) {
+                    removePostings(previous);
+                    updateStatistics(previous, -1);
+                }
+                updateStatistics(document, 1);
+                for (Map.Entry<String, int[]> term : document.termFrequencies.entrySet()) {
+                    int[] frequencies = term.getValue();
+                    postingsByTerm.computeIfAbsent(term.getKey(), ignored -> new HashMap<>())
+                            .put(document, new Posting(document, frequencies[0], frequencies[1]));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ProviderSearchPage search(String query, List<String> tags, int limit, int offset) {
+        if (!isEnabled() || limit <= 0) {
+            return ProviderSearchPage.empty();
+        }
+        Set<String> terms = new LinkedHashSet<>(TextTokenizer.tokenize(query));
+        if (terms.isEmpty()) {
+            return ProviderSearchPage.empty();
+        }
+        List<String> requiredTags = tags == null ? List.of() : tags;
+
+        Map<IndexedDocument, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = documentsByUrl.size();
+            for (String term : terms) {
+                Map<IndexedDocument, Posting> postings = postingsByTerm.get(term);
+                if (postings == null || postings.isEmpty()) {
+                    continue;
+                }
+                double idf = Math.log(1.0 + (double) documentCount / postings.size());
+                for (Posting posting : postings.values()) {
+                    if (!posting.document().tags.containsAll(requiredTags)) {
+                        continue;
+                    }
+                    double frequency = posting.titleFrequency() * TITLE_WEIGHT + posting.bodyFrequency();
+                    scores.merge(posting.document(), idf * (1.0 + Math.log(frequency)), Double::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int safeOffset = Math.max(0, offset);
+        List<ProviderSearchResult> results = scores.entrySet().stream()
+                .sorted(Map.Entry.<IndexedDocument, Double>comparingByValue().reversed())
+                .skip(safeOffset)
+                .limit(limit)
+                .map(entry -> entry.getKey().result)
+                .toList();
+        return new ProviderSearchPage(results, scores.size() > safeOffset + limit);
+    }
+
+    public CorpusStatistics statistics(Collection<String> terms) {
+        if (!isEnabled()) {
+            return CorpusStatistics.EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            int documentCount = documentsByUrl.size();
+            if (documentCount == 0) {
+                return CorpusStatistics.EMPTY;
+            }
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : terms) {
+                Integer frequency = documentFrequencies.get(term);
+                if (frequency != null) {
+                    frequencies.put(term, frequency);
+                }
+            }
+            return new CorpusStatistics(
+                    documentCount,
+                    (double) totalTitleLength / documentCount,
+                    (double) totalBodyLength / documentCount,
+                    frequencies
+            );
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentsByUrl.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean isEnabled() {
+        return searchProperties.getLocalIndex().isEnabled();
+    }
+
+    private void removePostings(IndexedDocument document) {
+        for (String term : document.termFrequencies.keySet()) {
+            Map<IndexedDocument, Posting> postings = postingsByTerm.get(term);
+            if (postings == null) {
+                continue;
+            }
+            postings.remove(document);
+            if (postings.isEmpty()) {
+                postingsByTerm.remove(term);
+            }
+        }
+    }
+
+    // The excerpt's result (score, title, tags, snippet) and title terms, with the enriched document's body terms.
+    private IndexedDocument withEnrichedBody(IndexedDocument excerpt, IndexedDocument enriched) {
+        Map<String, int[]> frequencies = new HashMap<>();
+        for (Map.Entry<String, int[]> term : enriched.termFrequencies.entrySet()) {
+            if (term.getValue()[1] > 0) {
+                frequencies.put(term.getKey(), new int[] {0, term.getValue()[1]});
+            }
+        }
+        for (Map.Entry<String, int[]> term : excerpt.termFrequencies.entrySet()) {
+            if (term.getValue()[0] > 0) {
+                frequencies.computeIfAbsent(term.getKey(), ignored -> new int[2])[0] = term.getValue()[0];
+            }
+        }
+        return new IndexedDocument(
+                excerpt.result,
+                excerpt.tags,
+                frequencies,
+                excerpt.rankedTerms,
+                excerpt.titleLength,
+                excerpt.bodyLength,
+                true
+        );
+    }
+
+    private void updateStatistics(IndexedDocument document, int delta) {
+        totalTitleLength += (long) delta * document.titleLength;
+        totalBodyLength += (long) delta * document.bodyLength;
+        for (String term : document.rankedTerms) {
+            documentFrequencies.merge(term, delta, (current, change) -> current + change == 0 ? null : current + change);
+        }
+    }
+
+    private IndexedDocument prepare(DocumentEntity entity) {
+        Map<String, int[]> frequencies = new HashMap<>();
+        for (String token : TextTokenizer.tokenize(entity.getTitle())) {
+            frequencies.computeIfAbsent(token, ignored -> new int[2])[0]++;
+        }
+        for (String token : TextTokenizer.tokenize(bodyText(entity))) {
+            frequencies.computeIfAbsent(token, ignored -> new int[2])[1]++;
+        }
+
+        ProviderSearchResult result = toResult(entity);
+        Set<String> tags = result.tags().stream()
+                .map(tag -> tag.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+        List<String> titleTokens = TextTokenizer.tokenize(result.title());
+        List<String> bodyTokens = TextTokenizer.tokenize(result.snippet());
+        Set<String> rankedTerms = new HashSet<>(titleTokens);
+        rankedTerms.addAll(bodyTokens);
+        return new IndexedDocument(
+                result,
+                tags,
+                frequencies,
+                rankedTerms.toArray(String[]::new),
+                titleTokens.size(),
+                bodyTokens.size(),
+                entity.getEnrichedAt() != null
+        );
+    }
+
+    private String bodyText(DocumentEntity entity) {
+        String body = String.join(" ",
+                nullToEmpty(entity.getSnippet()),
+                nullToEmpty(entity.getQuestionText()),
+                nullToEmpty(entity.getBestAnswerText())
+        ).trim();
+        return body.isEmpty() ? nullToEmpty(entity.getNormalizedText()) : body;
+    }
+
+    private ProviderSearchResult toResult(DocumentEntity entity) {
+        int score = entity.getQuestionScore() == null ? 0 : entity.getQuestionScore();
+        boolean answered = Boolean.TRUE.equals(entity.getAnswered());
+        double quality = Math.min(1.25, score / 40.0) + (answered ? 0.5 : 0.0);
+        Instant publishedAt = entity.getPublishedAt() != null
+                ? entity.getPublishedAt()
+                : entity.getFetchedAt() != null ? entity.getFetchedAt() : Instant.EPOCH;
+
+        return new ProviderSearchResult(
+                entity.getQuestionId(),
+                entity.getUrl(),
+                nullToEmpty(entity.getTitle()),
+                snippet(entity),
+                source(entity),
+                score,
+                answered,
+                entity.getAcceptedAnswerId(),
+                quality,
+                publishedAt,
+                splitTags(entity.getTags()),
+                entity.getMetadataJson()
+        );
+    }
+
+    private String snippet(DocumentEntity entity) {
+        if (entity.getSnippet() != null && !entity.getSnippet().isBlank()) {
+            return entity.getSnippet();
+        }
+        String questionText = nullToEmpty(entity.getQuestionText());
+        if (!questionText.isBlank()) {
+            return questionText.length() <= SNIPPET_LENGTH
+                    ? questionText
+                    : questionText.substring(0, SNIPPET_LENGTH).trim() + "...";
+        }
+        return "Stack Overflow result.";
+    }
+
+    private SourceType source(DocumentEntity entity) {
+        try {
+            return SourceType.valueOf(entity.getSource());
+        } catch (IllegalArgumentException | NullPointerException ignored) {
+            return SourceType.STACKOVERFLOW;
+        }
+    }
+
+    private List<String> splitTags(String tags) {
+        if (tags == null || tags.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(tags.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isBlank())
+                .toList();
+    }
+
+    private String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private record Posting(IndexedDocument document, int titleFrequency, int bodyFrequency) {
+    }
+
+    private static final class IndexedDocument {
+        private final ProviderSearchResult result;
+        private final Set<String> tags;
+        private final Map<String, int[]> termFrequencies;
+        private final String[] rankedTerms;
+        private final int titleLength;
+        private final int bodyLength;
+        private final boolean enriched;
+
+        private IndexedDocument(
+                ProviderSearchResult result,
+                Set<String> tags,
+                Map<String, int[]> termFrequencies,
+                String[] rankedTerms,
+                int titleLength,
+                int bodyLength,
+                boolean enriched
+        ) {
+            this.result = result;
+            this.tags = tags;
+            this.termFrequencies = termFrequencies;
+            this.rankedTerms = rankedTerms;
+            this.titleLength = titleLength;
+            this.bodyLength = bodyLength;
+            this.enriched = enriched;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.searchengine.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Bounded queue that hands out the highest-priority items first. When full, an offer evicts the lowest-priority
+// item only if it outranks it; items older than maxAge are dropped instead of being handed out.
+public class PriorityWorkQueue<T> {
+
+    private final NavigableSet<Job<T>> jobs = new TreeSet<>(
+            Comparator.<Job<T>>comparingDouble(Job::priority).reversed().thenComparingLong(Job::sequence)
+    );
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final int capacity;
+    private final long maxAgeNanos;
+    private final Consumer<T> onDrop;
+    private final Counter droppedOverflow;
+    private final Counter droppedExpired;
+    private final Timer waitTime;
+    private long nextSequence;
+
+    public PriorityWorkQueue(String name, int capacity, Duration maxAge, Consumer<T> onDrop, MeterRegistry meterRegistry) {
+        this.capacity = Math.max(1, capacity);
+        this.maxAgeNanos = maxAge == null ? 0L : Math.max(0, maxAge.toNanos());
+        this.onDrop = onDrop;
+        this.droppedOverflow = Counter.builder("search.priority.queue.dropped")
+                .tag("queue", name)
+                .tag("reason", "overflow")
+                .register(meterRegistry);
+        this.droppedExpired = Counter.builder("search.priority.queue.dropped")
+                .tag("queue", name)
+                .tag("reason", "expired")
+                .register(meterRegistry);
+        this.waitTime = Timer.builder("search.priority.queue.wait")
+                .tag("queue", name)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("search.priority.queue.depth", this, PriorityWorkQueue::size).tag("queue", name).register(meterRegistry);
+    }
+
+    public boolean offer(T item, double priority) {
+        Job<T> evicted = null;
+        lock.lock();
+        try {
+            if (jobs.size() >= capacity) {
+                if (jobs.last().priority() >= priority) {
+                    droppedOverflow.increment();
+                    return false;
+                }
+                evicted = jobs.pollLast();
+                droppedOverflow.increment();
+            }
+            jobs.add(new Job<>(item, priority, System.nanoTime(), nextSequence++));
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (evicted != null) {
+            onDrop.accept(evicted.item());
+        }
+        return true;
+    }
+
+    // Blocks until an item is available, then lets further offers arrive for up to `window` so the batch is
+    // filled by priority rather than by arrival order.
+    public List<T> take(int maxItems, Duration window) throws InterruptedException {
+        List<T> batch = new ArrayList<>();
+        List<T> expired = new ArrayList<>();
+        lock.lockInterruptibly();
+        try {
+            while (batch.isEmpty()) {
+                while (jobs.isEmpty()) {
+                    notEmpty.await();
+                }
+                long remaining = window.toNanos();
+                while (jobs.size() < maxItems && remaining > 0) {
+                    remaining = notEmpty.awaitNanos(remaining);
+                }
+
+                long now = System.nanoTime();
+                if (maxAgeNanos > 0) {
+                    for (Iterator<Job<T>> iterator = jobs.iterator(); iterator.hasNext(); ) {
+                        Job<T> job = iterator.next();
+                        if (now - job.enqueuedAtNanos() > maxAgeNanos) {
+                            iterator.remove();
+                            expired.add(job.item());
+                        }
+                    }
+                }
+                while (batch.size() < maxItems && !jobs.isEmpty()) {
+                    Job<T> job = jobs.pollFirst();
+                    waitTime.record(now - job.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+                    batch.add(job.item());
+                }
+            }
+        } finally {
+            lock.unlock();
+            droppedExpired.increment(expired.size());
+            expired.forEach(onDrop);
+        }
+        return batch;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return jobs.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record Job<T>(T item, double priority, long enqueuedAtNanos, long sequence) {
+    }
+}
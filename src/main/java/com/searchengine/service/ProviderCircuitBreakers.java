@@ -0,0 +1,234 @@
+package com.searchengine.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.searchengine.config.SearchProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// One breaker per search provider, fed with the outcome and latency of every call over a sliding window of
+// the last window-size calls. An open breaker rejects calls without touching the network until open-millis
+// have passed; then half-open-probes calls are let through and decide whether it closes or opens again.
+@Component
+public class ProviderCircuitBreakers {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    public record Snapshot(
+            State state,
+            int calls,
+            double failureRate,
+            double slowCallRate,
+            long p95LatencyMillis
+    ) {
+    }
+
+    // Issued by tryAcquire for one call. Its outcome only counts while the breaker is still in the state (and the
+    // same spell of that state) it was issued in; probe marks the permits issued while half-open.
+    public record Permit(long generation, boolean probe) {
+    }
+
+    private final SearchProperties.Providers.CircuitBreaker settings;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    public ProviderCircuitBreakers(SearchProperties searchProperties, MeterRegistry meterRegistry) {
+        this.settings = searchProperties.getProviders().getCircuitBreaker();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Breaker forProvider(String provider) {
+        return breakers.computeIfAbsent(provider, name -> new Breaker(name, settings, meterRegistry));
+    }
+
+    public Map<String, Snapshot> snapshots() {
+        Map<String, Snapshot> snapshots = new TreeMap<>();
+        breakers.forEach((provider, breaker) -> snapshots.put(provider, breaker.snapshot()));
+        return snapshots;
+    }
+
+    public static final class Breaker {
+
+        private final SearchProperties.Providers.CircuitBreaker settings;
+        private final boolean[] failures;
+        private final long[] latencies;
+        private final long slowCallNanos;
+        private final Counter rejected;
+        private final Counter opened;
+        private int next;
+        private int size;
+        private State state = State.CLOSED;
+        // Bumped on every state change, so permits from an earlier state can be told apart.
+        private long generation;
+        private long openedAtNanos;
+        private int probesInFlight;
+        private int probeSuccesses;
+
+        private Breaker(String provider, SearchProperties.Providers.CircuitBreaker settings, MeterRegistry meterRegistry) {
+            this.settings = settings;
+            int windowSize = Math.max(1, settings.getWindowSize());
+            this.failures = new boolean[windowSize];
+            this.latencies = new long[windowSize];
+            this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, settings.getSlowCallMillis()));
+            this.rejected = Counter.builder("search.provider.circuit.rejected").tag("provider", provider).register(meterRegistry);
+            this.opened = Counter.builder("search.provider.circuit.opened").tag("provider", provider).register(meterRegistry);
+            Gauge.builder("search.provider.circuit.state", this, breaker -> breaker.snapshot().state().ordinal())
+                    .tag("provider", provider)
+                    .description("0 closed, 1 open, 2 half-open")
+                    .register(meterRegistry);
+        }
+
+        // Null when the call is rejected. Every permit must end in exactly one of onSuccess, onFailure or onIgnored.
+        public synchronized Permit tryAcquire() {
+            if (!settings.isEnabled()) {
+                return new Permit(generation, false);
+            }
+            if (state == State.OPEN) {
+                if (System.nanoTime() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(settings.getOpenMillis())) {
+                    rejected.increment();
+                    return null;
+                }
+                state = State.HALF_OPEN;
+                generation++;
+                probesInFlight = 0;
+                probeSuccesses = 0;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probesInFlight >= Math.max(1, settings.getHalfOpenProbes())) {
+                    rejected.increment();
+                    return null;
+                }
+                probesInFlight++;
+                return new Permit(generation, true);
+            }
+            return new Permit(generation, false);
+        }
+
+        // A call let through while closed that ends after the breaker opened (or while it is half-open) is
+        // dropped: only probes decide a half-open trial.
+        public synchronized void onSuccess(Permit permit, long elapsedNanos) {
+            if (permit.generation() != generation) {
+                return;
+            }
+            record(false, elapsedNanos);
+            if (!permit.probe()) {
+                evaluate();
+                return;
+            }
+            probesInFlight = Math.max(0, probesInFlight - 1);
+            if (elapsedNanos >= slowCallNanos) {
+                open();
+            } else if (++probeSuccesses >= Math.max(1, settings.getHalfOpenProbes())) {
+                close();
+            }
+        }
+
+        public synchronized void onFailure(Permit permit, long elapsedNanos) {
+            if (permit.generation() != generation) {
+                return;
+            }
+            record(true, elapsedNanos);
+            if (permit.probe()) {
+                open();
+            } else {
+                evaluate();
+            }
+        }
+
+        // A cancelled call says nothing about the provider but must return its half-open permit.
+        public synchronized void onIgnored(Permit permit) {
+            if (permit.generation() == generation && permit.probe()) {
+                probesInFlight = Math.max(0, probesInFlight - 1);
+            }
+        }
+
+        public synchronized Snapshot snapshot() {
+            if (state == State.OPEN
+                    && System.nanoTime() - openedAtNanos >= TimeUnit.MILLISECONDS.toNanos(settings.getOpenMillis())) {
+                return snapshot(State.HALF_OPEN);
+            }
+            return snapshot(state);
+        }
+
+        private Snapshot snapshot(State reported) {
+            if (size == 0) {
+                return new Snapshot(reported, 0, 0.0, 0.0, 0L);
+            }
+            long[] window = Arrays.copyOf(latencies, size);
+            Arrays.sort(window);
+            long p95 = window[Math.min(size - 1, (int) Math.ceil(size * 0.95) - 1)];
+            return new Snapshot(
+                    reported,
+                    size,
+                    (double) failureCount() / size,
+                    (double) slowCount() / size,
+                    TimeUnit.NANOSECONDS.toMillis(p95)
+            );
+        }
+
+        private void record(boolean failure, long elapsedNanos) {
+            failures[next] = failure;
+            latencies[next] = elapsedNanos;
+            next = (next + 1) % failures.length;
+            size = Math.min(size + 1, failures.length);
+        }
+
+        private void evaluate() {
+            if (size < Math.max(1, settings.getMinimumCalls())) {
+                return;
+            }
+            if ((double) failureCount() / size >= settings.getFailureRateThreshold()
+                    || (double) slowCount() / size >= settings.getSlowCallRateThreshold()) {
+                open();
+            }
+        }
+
+        private void open() {
+            state = State.OPEN;
+            generation++;
+            openedAtNanos = System.nanoTime();
+            probesInFlight = 0;
+            opened.increment();
+        }
+
+        // Closing starts a new window so the failures that opened the breaker do not reopen it at once.
+        private void close() {
+            state = State.CLOSED;
+            generation++;
+            next = 0;
+            size = 0;
+        }
+
+        private int failureCount() {
+            int count = 0;
+            for (int index = 0; index < size; index++) {
+                if (failures[index]) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private int slowCount() {
+            int count = 0;
+            for (int index = 0; index < size; index++) {
+                if (latencies[index] >= slowCallNanos) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.searchengine.service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.searchengine.config.SearchProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+// Per-provider call latency. Its recent p95 is the hedge delay: a call still running at that point gets a
+// duplicate, so only the slowest few percent of calls pay for a second request.
+@Component
+public class ProviderLatencyTracker {
+
+    private static final double HEDGE_PERCENTILE = 0.95;
+
+    private final MeterRegistry meterRegistry;
+    private final SearchProperties.Providers.Hedge hedge;
+    private final Map<String, Timer> latencies = new ConcurrentHashMap<>();
+    private final Map<String, Counter> hedges = new ConcurrentHashMap<>();
+    private final Map<String, Counter> timeouts = new ConcurrentHashMap<>();
+
+    public ProviderLatencyTracker(SearchProperties searchProperties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.hedge = searchProperties.getProviders().getHedge();
+    }
+
+    public void record(String provider, long elapsedNanos) {
+        latency(provider).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // A call cut off by its deadline is recorded at the deadline, so a hanging provider raises its own p95.
+    public void timedOut(String provider, Duration timeout) {
+        timeouts.computeIfAbsent(provider, name -> counter("search.provider.timeouts", name)).increment();
+        record(provider, timeout.toNanos());
+    }
+
+    public void hedged(String provider) {
+        hedges.computeIfAbsent(provider, name -> counter("search.provider.hedges", name)).increment();
+    }
+
+    // Null while hedging is off, the provider has too few samples, or no call finished recently.
+    public Duration hedgeDelay(String provider) {
+        if (!hedge.isEnabled()) {
+            return null;
+        }
+        Timer timer = latency(provider);
+        if (timer.count() < Math.max(1, hedge.getMinSamples())) {
+            return null;
+        }
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == HEDGE_PERCENTILE && percentile.value() > 0) {
+                long p95Nanos = (long) percentile.value(TimeUnit.NANOSECONDS);
+                return Duration.ofNanos(Math.max(TimeUnit.MILLISECONDS.toNanos(hedge.getMinDelayMillis()), p95Nanos));
+            }
+        }
+        return null;
+    }
+
+    private Timer latency(String provider) {
+        return latencies.computeIfAbsent(provider, name -> Timer.builder("search.provider.latency")
+                .tag("provider", name)
+                .publishPercentiles(HEDGE_PERCENTILE)
+                .register(meterRegistry));
+    }
+
+    private Counter counter(String name, String provider) {
+        return Counter.builder(name).tag("provider", provider).register(meterRegistry);
+    }
+}
@@ -0,0 +1,52 @@
+package com.searchengine.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.searchengine.config.SearchProperties;
+import com.searchengine.integration.ProviderSearchPage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Raw provider pages keyed by the request actually sent to the provider. Responses for any limit or offset
+// that fall inside cached pages are ranked and sliced from here without another provider call.
+@Component
+public class ProviderPageCache {
+
+    public record Key(String provider, String query, List<String> tags, String sort, int pageSize, int page) {
+
+        public Key {
+            query = query == null ? "" : query.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+            tags = tags == null ? List.of() : List.copyOf(tags);
+        }
+    }
+
+    private final Cache<Key, ProviderSearchPage> pages;
+
+    public ProviderPageCache(SearchProperties searchProperties, MeterRegistry meterRegistry) {
+        SearchProperties.Cache cache = searchProperties.getCache();
+        this.pages = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, cache.getProviderPageMaxEntries()))
+                .expireAfterWrite(Duration.ofMinutes(Math.max(1, cache.getProviderPageTtlMinutes())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "search.provider.pages");
+    }
+
+    public ProviderSearchPage get(Key key) {
+        return pages.getIfPresent(key);
+    }
+
+    // Empty pages are not kept: a failed provider call is answered with an empty page too.
+    public void put(Key key, ProviderSearchPage page) {
+        if (page != null && !page.items().isEmpty()) {
+            pages.put(key, page);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.searchengine.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.searchengine.config.SearchProperties;
+import com.searchengine.persistence.QueryHitCount;
+import com.searchengine.persistence.QueryLogBulkWriter;
+import com.searchengine.persistence.QueryLogEntity;
+import com.searchengine.persistence.QueryRollupStore;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+@Service
+public class QueryLogService {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryLogService.class);
+    // Closed hours keep this many candidates per requested top query, so the current hour and the unflushed tail
+    // can still move a query into the top N.
+    private static final int TOP_CANDIDATE_FACTOR = 5;
+    private static final int MIN_TOP_CANDIDATES = 50;
+
+    private final QueryLogBulkWriter bulkWriter;
+    private final QueryRollupStore rollupStore;
+    private final TransactionTemplate transactionTemplate;
+    private final SearchProperties.QueryLog settings;
+    private final WriteBehindQueue<QueryLogEntity> queue;
+    // Rollup rows and the unflushed tail must be read and advanced together so a summary never counts an event twice.
+    private final ReentrantReadWriteLock rollupLock = new ReentrantReadWriteLock();
+    private final PendingTail tail = new PendingTail();
+    // Top queries of the window's closed hours. Those buckets only change when a late batch lands in them, which
+    // drops this aggregate; the current hour and the pending tail are added on every summary.
+    private volatile ClosedHoursTop closedHoursTop;
+    // Cheap in-process popularity signal for hot-path consumers that cannot afford a rollup query.
+    private final Cache<String, LongAdder> recentHits = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+
+    public QueryLogService(
+            QueryLogBulkWriter bulkWriter,
+            QueryRollupStore rollupStore,
+            PlatformTransactionManager transactionManager,
+            SearchProperties searchProperties,
+            MeterRegistry meterRegistry
+    ) {
+        SearchProperties.QueryLog queryLog = searchProperties.getQueryLog();
+        this.bulkWriter = bulkWriter;
+        this.rollupStore = rollupStore;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = queryLog;
+        this.queue = new WriteBehindQueue<>(
+                "query-logs",
+                queryLog.getQueueCapacity(),
+                queryLog.getBatchSize(),
+                Duration.ofMillis(queryLog.getFlushIntervalMillis()),
+                queryLog.getOverflowPolicy(),
+                Duration.ofMillis(queryLog.getBlockTimeoutMillis()),
+                this::writeBatch,
+                meterRegistry
+        );
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRollups() {
+        rollupLock.writeLock().lock();
+        try {
+            rollupStore.backfillIfEmpty();
+        } finally {
+            rollupLock.writeLock().unlock();
+        }
+    }
+
+    public void record(String query, String sort, List<String> tags, int limit, int offset, int resultCount, boolean cacheHit) {
+        QueryLogEntity log = new QueryLogEntity();
+        log.setQueryText(query);
+        log.setSort(sort);
+        log.setTags(tags.isEmpty() ? "" : String.join(",", tags));
+        log.setLimitValue(limit);
+        log.setOffsetValue(offset);
+        log.setResultCount(resultCount);
+        log.setCacheHit(cacheHit);
+        log.setCreatedAt(Instant.now());
+
+        recentHits.get(popularityKey(query), ignored -> new LongAdder()).increment();
+        tail.add(log, 1);
+        if (!queue.offer(log)) {
+            tail.add(log, -1);
+        }
+    }
+
+    public long recentHits(String query) {
+        LongAdder hits = recentHits.getIfPresent(popularityKey(query));
+        return hits == null ? 0L : hits.sum();
+    }
+
+    // since only bounds queriesSince; top queries count every hour bucket, i.e. the whole log. Closed hours are
+    // aggregated once per hour and merged with the current hour and the pending tail.
+    public QueryLogSummary summarize(Instant since, int topN) {
+        rollupLock.readLock().lock();
+        try {
+            PendingTail.Snapshot pending = tail.snapshot();
+            long totalQueries = rollupStore.totalQueries() + pending.queries();
+            long queriesSince = rollupStore.queriesSince(since) + pending.queries();
+
+            Instant currentHour = Instant.now().truncatedTo(ChronoUnit.HOURS);
+            int candidates = Math.max(MIN_TOP_CANDIDATES, topN * TOP_CANDIDATE_FACTOR);
+            Map<String, Long> hits = new HashMap<>(pending.hits());
+            for (QueryHitCount row : closedHoursTop(Instant.EPOCH, currentHour, candidates)) {
+                hits.merge(row.queryText(), row.hits(), Long::sum);
+            }
+            for (QueryHitCount row : rollupStore.topQueries(currentHour, currentHour.plus(1, ChronoUnit.HOURS), candidates)) {
+                hits.merge(row.queryText(), row.hits(), Long::sum);
+            }
+            List<QueryHitCount> topQueries = hits.entrySet().stream()
+                    .map(entry -> new QueryHitCount(entry.getKey(), entry.getValue()))
+                    .sorted(Comparator.comparingLong(QueryHitCount::hits).reversed())
+                    .limit(topN)
+                    .toList();
+            return new QueryLogSummary(totalQueries, queriesSince, topQueries);
+        } finally {
+            rollupLock.readLock().unlock();
+        }
+    }
+
+    private List<QueryHitCount> closedHoursTop(Instant from, Instant until, int candidates) {
+        ClosedHoursTop cached = closedHoursTop;
+        if (cached != null && cached.from().equals(from) && cached.until().equals(until) && cached.candidates() >= candidates) {
+            return cached.rows();
+        }
+        List<QueryHitCount> rows = rollupStore.topQueries(from, until, candidates);
+        closedHoursTop = new ClosedHoursTop(from, until, candidates, rows);
+        return rows;
+    }
+
+    public void flush() {
+        queue.flush();
+    }
+
+    private String popularityKey(String query) {
+        return query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queue.close();
+    }
+
+    // Logs leave the pending tail only once their transaction commits. A failing batch is retried with backoff
+    // and, after the last attempt, dropped from the tail and handed back to the queue as a failed batch.
+    private void writeBatch(List<QueryLogEntity> batch) {
+        int attempts = Math.max(1, settings.getWriteAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                writeOnce(batch);
+                return;
+            } catch (RuntimeException exception) {
+                if (attempt >= attempts || !backOff(attempt)) {
+                    tail.removeAll(batch);
+                    throw exception;
+                }
+                log.warn("Writing {} query logs failed (attempt {} of {}), retrying", batch.size(), attempt, attempts, exception);
+            }
+        }
+    }
+
+    private void writeOnce(List<QueryLogEntity> batch) {
+        rollupLock.writeLock().lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bulkWriter.insert(batch);
+                rollupStore.increment(batch);
+            });
+            tail.removeAll(batch);
+            ClosedHoursTop closed = closedHoursTop;
+            if (closed != null && batch.stream().anyMatch(entry -> entry.getCreatedAt().isBefore(closed.until()))) {
+                closedHoursTop = null;
+            }
+        } finally {
+            rollupLock.writeLock().unlock();
+        }
+    }
+
+    private boolean backOff(int attempt) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(Math.max(0, settings.getRetryBackoffMillis()) * attempt);
+            return true;
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record ClosedHoursTop(Instant from, Instant until, int candidates, List<QueryHitCount> rows) {
+    }
+
+    private static final class PendingTail {
+        private final Map<String, Long> hits = new HashMap<>();
+        private long queries;
+
+        private synchronized void add(QueryLogEntity log, int delta) {
+            queries += delta;
+            hits.merge(log.getQueryText(), (long) delta, (current, change) -> {
+                long next = current + change;
+                return next == 0 ? null : next;
+            });
+        }
+
+        private synchronized void removeAll(List<QueryLogEntity> logs) {
+            for (QueryLogEntity log : logs) {
+                add(log, -1);
+            }
+        }
+
+        private synchronized Snapshot snapshot() {
+            return new Snapshot(queries, new HashMap<>(hits));
+        }
+
+        private record Snapshot(long queries, Map<String, Long> hits) {
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.searchengine.service;
+
+import java.util.List;
+
+import com.searchengine.persistence.QueryHitCount;
+
+public record QueryLogSummary(
+        long totalQueries,
+        long queriesSince,
+        List<QueryHitCount> topQueries
+) {
+}
@@ -2,77 +2,179 @@ package com.searchengine.service;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Locale;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.springframework.stereotype.Component;
 
 import com.searchengine.api.dto.SearchItem;
+import com.searchengine.config.SearchProperties;
 import com.searchengine.domain.ProviderSearchResult;
 
 @Component
 public class Ranker {
 
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    private final SearchProperties searchProperties;
+    private final LocalSearchIndex localSearchIndex;
+
+    public Ranker(SearchProperties searchProperties, LocalSearchIndex localSearchIndex) {
+        this.searchProperties = searchProperties;
+        this.localSearchIndex = localSearchIndex;
+    }
+
     public List<SearchItem> rank(String query, List<ProviderSearchResult> results, int limit) {
-    String normalizedQuery = normalize(query);
-    List<String> terms = Arrays.stream(normalizedQuery.split("\\s+"))
-                .filter(term -> !term.isBlank())
-                .toList();
-    Set<String> queryTerms = new HashSet<>(terms);
-
-        return results.stream()
-                .map(result -> {
-            double relevance = relevanceScore(normalizedQuery, queryTerms, result.title(), result.snippet());
-            double quality = qualityScore(result);
-                    double freshness = freshnessScore(result.publishedAt());
-            double score = relevance + quality + freshness;
-
-                    return new SearchItem(
-                            result.questionId(),
-                            result.title(),
-                            result.source().name(),
-                            result.tags(),
-                            result.questionScore(),
-                            result.answered(),
-                            result.acceptedAnswerId() != null,
-                            result.snippet(),
-                            result.url(),
-                            score
-                    );
-                })
-                .sorted(Comparator.comparingDouble(SearchItem::score).reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
+        if (results == null || results.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        List<String> queryTokens = TextTokenizer.tokenize(query);
+        Set<String> queryTerms = new LinkedHashSet<>(queryTokens);
+        Bm25Scorer bm25 = bm25Scorer(queryTerms, results);
+        Instant now = Instant.now();
+        int size = results.size();
+
+        double[] scores = new double[size];
+        IntStream indexes = IntStream.range(0, size);
+        if (size >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(index -> scores[index] = score(queryTokens, queryTerms, bm25, results.get(index), now));
+
+        // Min-heap of the best candidates so far; on equal scores the earlier candidate ranks higher.
+        Comparator<Integer> byRank = Comparator.<Integer>comparingDouble(index -> scores[index])
+                .reversed()
+                .thenComparingInt(index -> index);
+        int capacity = Math.min(limit, size);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(capacity + 1, byRank.reversed());
+        for (int index = 0; index < size; index++) {
+            if (heap.size() < capacity) {
+                heap.add(index);
+            } else if (byRank.compare(index, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(index);
+            }
+        }
+
+        List<Integer> selected = new ArrayList<>(heap);
+        selected.sort(byRank);
+        List<SearchItem> items = new ArrayList<>(selected.size());
+        for (int index : selected) {
+            items.add(toItem(results.get(index), scores[index]));
+        }
+        return items;
+    }
+
+    private Bm25Scorer bm25Scorer(Set<String> queryTerms, List<ProviderSearchResult> results) {
+        SearchProperties.Ranking ranking = searchProperties.getRanking();
+        if (ranking.getScorer() != SearchProperties.RankingScorer.BM25 || queryTerms.isEmpty()) {
+            return null;
+        }
+        CorpusStatistics statistics = localSearchIndex.statistics(queryTerms);
+        if (statistics.documentCount() == 0) {
+            statistics = CorpusStatistics.fromCandidates(queryTerms, results);
+        }
+        return new Bm25Scorer(queryTerms, statistics, ranking.getBm25());
     }
 
-    private double relevanceScore(String normalizedQuery, Set<String> queryTerms, String title, String snippet) {
+    private double score(
+            List<String> queryTokens,
+            Set<String> queryTerms,
+            Bm25Scorer bm25,
+            ProviderSearchResult result,
+            Instant now
+    ) {
+        double relevance = relevanceScore(queryTokens, queryTerms, bm25, result.title(), result.snippet());
+        double quality = qualityScore(result);
+        double freshness = freshnessScore(result.publishedAt(), now);
+        return relevance + quality + freshness;
+    }
+
+    private SearchItem toItem(ProviderSearchResult result, double score) {
+        return new SearchItem(
+                result.questionId(),
+                result.title(),
+                result.source().name(),
+                result.tags(),
+                result.questionScore(),
+                result.answered(),
+                result.acceptedAnswerId() != null,
+                result.snippet(),
+                result.url(),
+                score
+        );
+    }
+
+    private double relevanceScore(
+            List<String> queryTokens,
+            Set<String> queryTerms,
+            Bm25Scorer bm25,
+            String title,
+            String snippet
+    ) {
         if (queryTerms.isEmpty()) {
             return 0.0;
         }
 
-        String normalizedTitle = normalize(title);
-        String normalizedSnippet = normalize(snippet);
-        String normalizedText = (normalizedTitle + " " + normalizedSnippet).trim();
-
-        if (normalizedText.isBlank()) {
+        List<String> titleTokens = TextTokenizer.tokenize(title);
+        List<String> snippetTokens = TextTokenizer.tokenize(snippet);
+        if (titleTokens.isEmpty() && snippetTokens.isEmpty()) {
             return 0.0;
         }
 
-        long textMatches = queryTerms.stream().filter(normalizedText::contains).count();
-        long titleMatches = queryTerms.stream().filter(normalizedTitle::contains).count();
+        double phraseBoost = containsPhrase(titleTokens, snippetTokens, queryTokens) ? 0.8 : 0.0;
+        if (bm25 != null) {
+            // Same 0..2.8 range as the coverage score below.
+            return bm25.score(titleTokens, snippetTokens) * 2.0 + phraseBoost;
+        }
+
+        Set<String> titleTerms = new HashSet<>(titleTokens);
+        long textMatches = 0;
+        long titleMatches = 0;
+        for (String term : queryTerms) {
+            if (titleTerms.contains(term)) {
+                titleMatches++;
+                textMatches++;
+            } else if (snippetTokens.contains(term)) {
+                textMatches++;
+            }
+        }
 
         double termCoverage = (double) textMatches / queryTerms.size();
         double titleCoverage = (double) titleMatches / queryTerms.size();
-        double phraseBoost = !normalizedQuery.isBlank() && normalizedText.contains(normalizedQuery) ? 0.8 : 0.0;
 
         return (termCoverage * 1.2) + (titleCoverage * 0.8) + phraseBoost;
     }
 
+    // Matches the query as a contiguous token run across "title snippet", the same text the score used to scan.
+    private boolean containsPhrase(List<String> titleTokens, List<String> snippetTokens, List<String> phrase) {
+        int textLength = titleTokens.size() + snippetTokens.size();
+        int phraseLength = phrase.size();
+        for (int start = 0; start + phraseLength <= textLength; start++) {
+            int matched = 0;
+            while (matched < phraseLength && tokenAt(titleTokens, snippetTokens, start + matched).equals(phrase.get(matched))) {
+                matched++;
+            }
+            if (matched == phraseLength) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String tokenAt(List<String> titleTokens, List<String> snippetTokens, int position) {
+        return position < titleTokens.size()
+                ? titleTokens.get(position)
+                : snippetTokens.get(position - titleTokens.size());
+    }
+
     private double qualityScore(ProviderSearchResult result) {
         double sourceQuality = Math.max(0.0, result.sourceQuality());
         double acceptedBonus = result.acceptedAnswerId() != null ? 0.35 : 0.0;
@@ -87,21 +189,11 @@ public class Ranker {
         return sourceQuality + acceptedBonus + answeredBonus + voteSignal + tagSignal;
     }
 
-    private double freshnessScore(Instant publishedAt) {
+    private double freshnessScore(Instant publishedAt, Instant now) {
         if (publishedAt == null) {
             return 0.0;
         }
-        long ageDays = Math.max(0, Duration.between(publishedAt, Instant.now()).toDays());
+        long ageDays = Math.max(0, Duration.between(publishedAt, now).toDays());
         return Math.exp(-(double) ageDays / 540.0) * 0.45;
     }
-
-    private String normalize(String text) {
-        if (text == null || text.isBlank()) {
-            return "";
-        }
-        return text.toLowerCase(Locale.ROOT)
-                .replaceAll("[^\\p{L}\\p{N}\\s]", " ")
-                .replaceAll("\\s+", " ")
-                .trim();
-    }
 }
@@ -0,0 +1,135 @@
+package com.searchengine.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.searchengine.config.SearchProperties;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+// Redis value format: one header byte naming the encoding, then the payload. The header is read on every
+// decode, so changing search.cache.codec leaves existing entries readable; entries written as plain JSON
+// strings before the header existed start with '{' and are still accepted.
+@Component
+public class SearchCacheCodec {
+
+    static final byte JSON = 0x01;
+    static final byte JSON_DEFLATE = 0x02;
+    static final byte SMILE = 0x03;
+    static final byte SMILE_DEFLATE = 0x04;
+    private static final byte LEGACY_JSON = '{';
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final SearchProperties.CacheCodecFormat format;
+    private final int compressionThresholdBytes;
+    private final DistributionSummary storedBytes;
+    private final Timer encodeTimer;
+    private final Timer decodeTimer;
+
+    public SearchCacheCodec(ObjectMapper objectMapper, SearchProperties searchProperties, MeterRegistry meterRegistry) {
+        SearchProperties.Cache cache = searchProperties.getCache();
+        this.jsonMapper = objectMapper;
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.format = cache.getCodec() == null ? SearchProperties.CacheCodecFormat.SMILE : cache.getCodec();
+        this.compressionThresholdBytes = cache.getCompressionThresholdBytes();
+        String codec = format.name().toLowerCase(Locale.ROOT);
+        this.storedBytes = DistributionSummary.builder("search.cache.entry.bytes")
+                .tag("codec", codec)
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("search.cache.codec.encode").tag("codec", codec).register(meterRegistry);
+        this.decodeTimer = Timer.builder("search.cache.codec.decode").tag("codec", codec).register(meterRegistry);
+    }
+
+    public byte[] encode(CachedSearchResponse entry) throws IOException {
+        long startedAt = System.nanoTime();
+        boolean smile = format == SearchProperties.CacheCodecFormat.SMILE;
+        byte[] body = (smile ? smileMapper : jsonMapper).writeValueAsBytes(entry);
+        boolean compress = compressionThresholdBytes > 0 && body.length >= compressionThresholdBytes;
+        if (compress) {
+            body = deflate(body);
+        }
+        byte header = smile ? (compress ? SMILE_DEFLATE : SMILE) : (compress ? JSON_DEFLATE : JSON);
+
+        byte[] value = new byte[body.length + 1];
+        value[0] = header;
+        System.arraycopy(body, 0, value, 1, body.length);
+        encodeTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        storedBytes.record(value.length);
+        return value;
+    }
+
+    // Returns null for empty, unknown or corrupt values, which the cache treats as a miss.
+    public CachedSearchResponse decode(byte[] value) {
+        if (value == null || value.length == 0) {
+            return null;
+        }
+        long startedAt = System.nanoTime();
+        try {
+            CachedSearchResponse entry = switch (value[0]) {
+                case JSON -> jsonMapper.readValue(value, 1, value.length - 1, CachedSearchResponse.class);
+                case JSON_DEFLATE -> jsonMapper.readValue(inflate(value), CachedSearchResponse.class);
+                case SMILE -> smileMapper.readValue(value, 1, value.length - 1, CachedSearchResponse.class);
+                case SMILE_DEFLATE -> smileMapper.readValue(inflate(value), CachedSearchResponse.class);
+                case LEGACY_JSON -> jsonMapper.readValue(value, CachedSearchResponse.class);
+                default -> null;
+            };
+            if (entry == null || entry.response() == null || entry.softExpiresAt() == null || entry.hardExpiresAt() == null) {
+                return null;
+            }
+            return entry;
+        } catch (IOException | DataFormatException ignored) {
+            return null;
+        } finally {
+            decodeTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, input.length / 3));
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] value) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(value, 1, value.length - 1);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(value.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated cache entry");
+                }
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
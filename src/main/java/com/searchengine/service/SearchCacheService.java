@@ -1,50 +1,134 @@
 package com.searchengine.service;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.searchengine.api.dto.SearchItem;
 import com.searchengine.api.dto.SearchResponse;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import com.searchengine.config.SearchProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
 import java.io.IOException;
 import java.time.Duration;
-import java.util.Optional;
+import java.time.Instant;
 
 @Service
 public class SearchCacheService {
 
-    private final StringRedisTemplate redisTemplate;
-    private final ObjectMapper objectMapper;
-    private final Duration ttl;
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+    private static final int ITEM_OVERHEAD_BYTES = 160;
+
+    private final ReactiveRedisTemplate<String, byte[]> redisTemplate;
+    private final SearchCacheCodec codec;
+    private final Duration softTtl;
+    private final Duration hardTtl;
+    private final Cache<String, CachedSearchResponse> localCache;
+    private final Counter redisHits;
+    private final Counter redisMisses;
 
     public SearchCacheService(
-            StringRedisTemplate redisTemplate,
-            ObjectMapper objectMapper,
-            @Value("${search.cache.search-ttl-minutes:10}") long ttlMinutes
+            ReactiveRedisTemplate<String, byte[]> redisTemplate,
+            SearchCacheCodec codec,
+            SearchProperties searchProperties,
+            MeterRegistry meterRegistry
     ) {
+        SearchProperties.Cache cache = searchProperties.getCache();
         this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
-        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.codec = codec;
+        this.softTtl = Duration.ofMinutes(cache.getSearchTtlMinutes());
+        this.hardTtl = softTtl.plusMinutes(Math.max(0, cache.getStaleTtlMinutes()));
+        this.localCache = cache.isL1Enabled() ? buildLocalCache(cache, meterRegistry) : null;
+        this.redisHits = Counter.builder("search.cache.l2.requests").tag("result", "hit").register(meterRegistry);
+        this.redisMisses = Counter.builder("search.cache.l2.requests").tag("result", "miss").register(meterRegistry);
     }
 
-    public Optional<SearchResponse> get(String key) {
-        String value = redisTemplate.opsForValue().get(key);
-        if (value == null || value.isBlank()) {
-            return Optional.empty();
+    public Mono<CachedSearchResponse> get(String key) {
+        if (localCache != null) {
+            CachedSearchResponse local = localCache.getIfPresent(key);
+            if (local != null) {
+                return Mono.just(local);
+            }
         }
+
+        return redisTemplate.opsForValue().get(key)
+                .flatMap(value -> Mono.justOrEmpty(codec.decode(value)))
+                .doOnNext(entry -> {
+                    redisHits.increment();
+                    if (localCache != null) {
+                        localCache.put(key, entry);
+                    }
+                })
+                .onErrorResume(RuntimeException.class, ignored -> Mono.empty())
+                .switchIfEmpty(Mono.fromRunnable(redisMisses::increment));
+    }
+
+    public Mono<Void> put(String key, SearchResponse response, Duration computeTime) {
+        Instant now = Instant.now();
+        CachedSearchResponse entry = new CachedSearchResponse(
+                response,
+                now.plus(softTtl),
+                now.plus(hardTtl),
+                computeTime == null ? 0L : computeTime.toMillis()
+        );
+        if (localCache != null) {
+            localCache.put(key, entry);
+        }
+        byte[] payload;
         try {
-            return Optional.of(objectMapper.readValue(value, SearchResponse.class));
+            payload = codec.encode(entry);
         } catch (IOException ignored) {
-            return Optional.empty();
+            return Mono.empty();
         }
+        return redisTemplate.opsForValue().set(key, payload, hardTtl)
+                .onErrorResume(RuntimeException.class, ignored -> Mono.empty())
+                .then();
     }
 
-    public void put(String key, SearchResponse response) {
-        try {
-            String payload = objectMapper.writeValueAsString(response);
-            redisTemplate.opsForValue().set(key, payload, ttl);
-        } catch (JsonProcessingException ignored) {
+    private Cache<String, CachedSearchResponse> buildLocalCache(SearchProperties.Cache cache, MeterRegistry meterRegistry) {
+        long maxWeight = Math.max(1, cache.getL1MaxWeightBytes());
+        // Every entry weighs at least maxWeight / maxEntries, so the weight cap also caps the entry count.
+        int minimumWeight = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxWeight / Math.max(1, cache.getL1MaxEntries())));
+        Duration localTtl = Duration.ofSeconds(Math.max(1, Math.min(cache.getL1TtlSeconds(), hardTtl.toSeconds())));
+
+        Cache<String, CachedSearchResponse> built = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String key, CachedSearchResponse value) -> Math.max(minimumWeight, estimateWeight(key, value.response())))
+                .expireAfter(Expiry.writing((String key, CachedSearchResponse value) -> remainingTtl(value, localTtl)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, built, "search.l1");
+        return built;
+    }
+
+    private Duration remainingTtl(CachedSearchResponse entry, Duration localTtl) {
+        Duration untilRedisExpiry = Duration.between(Instant.now(), entry.hardExpiresAt());
+        if (untilRedisExpiry.isNegative()) {
+            return Duration.ZERO;
         }
+        return untilRedisExpiry.compareTo(localTtl) < 0 ? untilRedisExpiry : localTtl;
+    }
+
+    private int estimateWeight(String key, SearchResponse response) {
+        long bytes = ENTRY_OVERHEAD_BYTES + 2L * (key.length() + length(response.query()));
+        if (response.items() != null) {
+            for (SearchItem item : response.items()) {
+                bytes += ITEM_OVERHEAD_BYTES + 2L * (length(item.title()) + length(item.snippet()) + length(item.link()));
+                if (item.tags() != null) {
+                    for (String tag : item.tags()) {
+                        bytes += 48 + 2L * length(tag);
+                    }
+                }
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private int length(String value) {
+        return value == null ? 0 : value.length();
     }
 }
@@ -0,0 +1,101 @@
+package com.searchengine.service;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.searchengine.api.dto.SearchResponse;
+import com.searchengine.config.SearchProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+// Followers never run the loader on their own: a leader's error or a follower timeout is passed on to the
+// follower, and only a leader that ended without a response (cancelled by its caller) hands the key to a single
+// new leader elected from its followers.
+@Component
+public class SearchRequestCoalescer {
+
+    private final SearchProperties searchProperties;
+    private final ConcurrentHashMap<String, CompletableFuture<SearchResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter followerTimeouts;
+    private final Counter leaderFailures;
+    private final Counter reelections;
+
+    public SearchRequestCoalescer(SearchProperties searchProperties, MeterRegistry meterRegistry) {
+        this.searchProperties = searchProperties;
+        this.leaders = Counter.builder("search.coalescing.requests").tag("role", "leader").register(meterRegistry);
+        this.followers = Counter.builder("search.coalescing.requests").tag("role", "follower").register(meterRegistry);
+        this.followerTimeouts = Counter.builder("search.coalescing.follower.timeouts").register(meterRegistry);
+        this.leaderFailures = Counter.builder("search.coalescing.leader.failures").register(meterRegistry);
+        this.reelections = Counter.builder("search.coalescing.reelections").register(meterRegistry);
+        Gauge.builder("search.coalescing.in.flight", inFlight, ConcurrentHashMap::size).register(meterRegistry);
+    }
+
+    public Mono<SearchResponse> execute(String key, Supplier<Mono<SearchResponse>> loader) {
+        return Mono.defer(() -> {
+            SearchProperties.Coalescing coalescing = searchProperties.getCoalescing();
+            if (!coalescing.isEnabled()) {
+                return loader.get();
+            }
+
+            CompletableFuture<SearchResponse> leaderFuture = new CompletableFuture<>();
+            CompletableFuture<SearchResponse> existing = inFlight.putIfAbsent(key, leaderFuture);
+            if (existing == null) {
+                return lead(key, leaderFuture, loader);
+            }
+
+            followers.increment();
+            // Each follower waits on its own copy, so giving up never cancels the leader's shared future.
+            return Mono.fromFuture(existing.copy())
+                    .timeout(Duration.ofMillis(Math.max(1, coalescing.getFollowerTimeoutMillis())))
+                    .onErrorResume(error -> {
+                        if (error instanceof LeaderAbandonedException) {
+                            reelections.increment();
+                            return execute(key, loader);
+                        }
+                        if (error instanceof TimeoutException) {
+                            followerTimeouts.increment();
+                        } else {
+                            leaderFailures.increment();
+                        }
+                        return Mono.error(error);
+                    });
+        });
+    }
+
+    // The key is released before the future completes, so a woken follower that re-enters execute never finds
+    // the finished leader again.
+    private Mono<SearchResponse> lead(String key, CompletableFuture<SearchResponse> future, Supplier<Mono<SearchResponse>> loader) {
+        leaders.increment();
+        return Mono.defer(loader)
+                .doOnNext(response -> {
+                    inFlight.remove(key, future);
+                    future.complete(response);
+                })
+                .doOnError(error -> {
+                    inFlight.remove(key, future);
+                    future.completeExceptionally(error);
+                })
+                .doFinally(signal -> {
+                    inFlight.remove(key, future);
+                    future.completeExceptionally(new LeaderAbandonedException());
+                });
+    }
+
+    private static final class LeaderAbandonedException extends CancellationException {
+
+        private LeaderAbandonedException() {
+            super("Coalesced search ended without a response");
+        }
+    }
+}
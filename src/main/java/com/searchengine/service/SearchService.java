@@ -1,5 +1,6 @@
 package com.searchengine.service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -7,124 +8,728 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
 
 import com.searchengine.api.dto.SearchItem;
 import com.searchengine.api.dto.SearchResponse;
+import com.searchengine.api.dto.SearchStreamEvent;
+import com.searchengine.api.dto.SnippetUpdate;
+import com.searchengine.config.SearchProperties;
 import com.searchengine.domain.ProviderSearchResult;
 import com.searchengine.integration.ExternalSearchClient;
 import com.searchengine.integration.ProviderSearchPage;
-import com.searchengine.persistence.DocumentEntity;
-import com.searchengine.persistence.DocumentRepository;
-import com.searchengine.persistence.QueryLogEntity;
-import com.searchengine.persistence.QueryLogRepository;
+import com.searchengine.integration.StackExchangeBackoffManager;
+import com.searchengine.integration.StackExchangeRateGovernor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 @Service
 public class SearchService {
 
-    private static final int MAX_PROVIDER_FETCH_SIZE = 50;
+    private static final Logger log = LoggerFactory.getLogger(SearchService.class);
+
+    // Providers are always asked for pages of this size so that every limit and offset maps onto the same
+    // cached provider pages.
+    private static final int PROVIDER_PAGE_SIZE = 50;
+    private static final String CLIENT_SUFFIX = "SearchClient";
+    private static final String STACKOVERFLOW_PROVIDER = "stackoverflow";
+    private static final String WARM_KEY_PREFIX = "warm:";
+    private static final int MAX_BUFFERED_PREVIEWS = 256;
+    private static final Duration PENDING_CHECK_INTERVAL = Duration.ofMillis(50);
 
     private final List<ExternalSearchClient> clients;
     private final Ranker ranker;
     private final SearchCacheService cacheService;
-    private final DocumentRepository documentRepository;
-    private final QueryLogRepository queryLogRepository;
-    private final Executor searchExecutor;
+    private final ProviderPageCache providerPageCache;
+    private final ProviderLatencyTracker latencyTracker;
+    private final ProviderCircuitBreakers circuitBreakers;
+    private final DocumentIngestionService documentIngestionService;
+    private final QueryLogService queryLogService;
+    private final Scheduler providerScheduler;
     private final AsyncEnrichmentService asyncEnrichmentService;
+    private final LocalSearchIndex localSearchIndex;
+    private final StackExchangeBackoffManager backoffManager;
+    private final SearchRequestCoalescer requestCoalescer;
+    private final Scheduler cacheRefreshScheduler;
+    private final SearchProperties searchProperties;
+    private final Set<String> refreshingKeys = ConcurrentHashMap.newKeySet();
+    // One timer per pipeline stage, tagged search.stage{stage=...}, so latency can be attributed to the
+    // cache, the local index, provider fan-out, ranking or the bookkeeping after it.
+    private final Timer cacheLookupTimer;
+    private final Timer localIndexTimer;
+    private final Timer providersTimer;
+    private final Timer deduplicateTimer;
+    private final Timer rankTimer;
+    private final Timer persistTimer;
+    private final Timer queryLogTimer;
+    private final Timer cacheWriteTimer;
+    private final Timer executeTimer;
+    private final Counter refreshFailures;
 
     public SearchService(
             List<ExternalSearchClient> clients,
             Ranker ranker,
             SearchCacheService cacheService,
-            DocumentRepository documentRepository,
-            QueryLogRepository queryLogRepository,
+            ProviderPageCache providerPageCache,
+            ProviderLatencyTracker latencyTracker,
+            ProviderCircuitBreakers circuitBreakers,
+            DocumentIngestionService documentIngestionService,
+            QueryLogService queryLogService,
             @Qualifier("searchExecutor") Executor searchExecutor,
-            AsyncEnrichmentService asyncEnrichmentService
+            AsyncEnrichmentService asyncEnrichmentService,
+            LocalSearchIndex localSearchIndex,
+            StackExchangeBackoffManager backoffManager,
+            SearchRequestCoalescer requestCoalescer,
+            @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor,
+            SearchProperties searchProperties,
+            MeterRegistry meterRegistry
     ) {
         this.clients = clients;
         this.ranker = ranker;
         this.cacheService = cacheService;
-        this.documentRepository = documentRepository;
-        this.queryLogRepository = queryLogRepository;
-        this.searchExecutor = searchExecutor;
+        this.providerPageCache = providerPageCache;
+        this.latencyTracker = latencyTracker;
+        this.circuitBreakers = circuitBreakers;
+        // Registered up front so every provider shows on /api/health before its first call.
+        clients.forEach(client -> circuitBreakers.forProvider(providerName(client)));
+        this.documentIngestionService = documentIngestionService;
+        this.queryLogService = queryLogService;
+        this.providerScheduler = Schedulers.fromExecutor(searchExecutor);
         this.asyncEnrichmentService = asyncEnrichmentService;
+        this.localSearchIndex = localSearchIndex;
+        this.backoffManager = backoffManager;
+        this.requestCoalescer = requestCoalescer;
+        this.cacheRefreshScheduler = Schedulers.fromExecutor(cacheRefreshExecutor);
+        this.searchProperties = searchProperties;
+        this.cacheLookupTimer = stageTimer("cache_lookup", meterRegistry);
+        this.localIndexTimer = stageTimer("local_index", meterRegistry);
+        this.providersTimer = stageTimer("providers", meterRegistry);
+        this.deduplicateTimer = stageTimer("deduplicate", meterRegistry);
+        this.rankTimer = stageTimer("rank", meterRegistry);
+        this.persistTimer = stageTimer("persist", meterRegistry);
+        this.queryLogTimer = stageTimer("query_log", meterRegistry);
+        this.cacheWriteTimer = stageTimer("cache_write", meterRegistry);
+        this.executeTimer = stageTimer("execute", meterRegistry);
+        this.refreshFailures = Counter.builder("search.cache.refresh.failures").register(meterRegistry);
     }
 
-    public SearchResponse search(String query, int limit, int offset, String sort, List<String> tags) {
+    public Mono<SearchResponse> search(String query, int limit, int offset, String sort, List<String> tags) {
         String normalizedQuery = query == null ? "" : query.trim();
         int normalizedOffset = Math.max(0, offset);
         String normalizedSort = normalizeSort(sort);
         List<String> normalizedTags = normalizeTags(tags);
         String cacheKey = buildCacheKey(normalizedQuery, limit, normalizedOffset, normalizedSort, normalizedTags);
 
-        SearchResponse cached = cacheService.get(cacheKey).orElse(null);
-        if (cached != null) {
-            logQuery(normalizedQuery, normalizedSort, normalizedTags, limit, normalizedOffset, cached.total(), true);
-            return cached;
+        return timed(cacheLookupTimer, cacheService.get(cacheKey))
+                .map(cached -> serveCached(cached, normalizedQuery, limit, normalizedOffset, normalizedSort, normalizedTags, cacheKey))
+                .switchIfEmpty(Mono.defer(() -> requestCoalescer
+                        .execute(
+                                cacheKey,
+                                () -> executeAndCache(normalizedQuery, limit, normalizedOffset, normalizedSort, normalizedTags, cacheKey, false, null)
+                        )
+                        .doOnNext(response -> logQuery(
+                                normalizedQuery,
+                                normalizedSort,
+                                normalizedTags,
+                                limit,
+                                normalizedOffset,
+                                response.total(),
+                                false
+                        ))));
+    }
+
+    // Emits a fresh cached response once; otherwise any stale entry and local-index hits first, a re-ranked
+    // response as each provider answers, the final (cached) response, and then enriched previews for its top
+    // items until none of them is still being enriched or search.streaming.enrichment-wait-millis has passed.
+    public Flux<SearchStreamEvent> searchStream(String query, int limit, int offset, String sort, List<String> tags) {
+        String normalizedQuery = query == null ? "" : query.trim();
+        int normalizedOffset = Math.max(0, offset);
+        String normalizedSort = normalizeSort(sort);
+        List<String> normalizedTags = normalizeTags(tags);
+        String cacheKey = buildCacheKey(normalizedQuery, limit, normalizedOffset, normalizedSort, normalizedTags);
+
+        Flux<SearchStreamEvent> events = timed(cacheLookupTimer, cacheService.get(cacheKey))
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMapMany(cached -> {
+                    if (cached.isPresent() && !cached.get().isStale(Instant.now())) {
+                        SearchResponse response = serveCached(
+                                cached.get(), normalizedQuery, limit, normalizedOffset, normalizedSort, normalizedTags, cacheKey
+                        );
+                        return Flux.just(results("cached", response));
+                    }
+                    Flux<SearchStreamEvent> stale = Flux.fromStream(cached.stream())
+                            .map(entry -> results("cached", markStale(entry.response())));
+                    return stale.concatWith(streamFresh(
+                            normalizedQuery, limit, normalizedOffset, normalizedSort, normalizedTags, cacheKey, cached.isPresent()
+                    ));
+                });
+        return events.concatWith(Mono.just(new SearchStreamEvent("done", null, null, null)));
+    }
+
+    private Flux<SearchStreamEvent> streamFresh(
+            String query,
+            int limit,
+            int offset,
+            String sort,
+            List<String> tags,
+            String cacheKey,
+            boolean revalidate
+    ) {
+        return Flux.defer(() -> {
+            // Subscribed before the search runs so previews finishing before the final response are not missed. The
+            // feed carries every stream's previews, so only the latest MAX_BUFFERED_PREVIEWS are kept meanwhile.
+            AtomicReference<Disposable> previewFeed = new AtomicReference<>();
+            Flux<SnippetUpdate> previews = !searchProperties.getEnrichment().isEnabled()
+                    ? Flux.empty()
+                    : asyncEnrichmentService.snippetUpdates().replay(MAX_BUFFERED_PREVIEWS).autoConnect(0, previewFeed::set);
+            AtomicReference<SearchResponse> finalResponse = new AtomicReference<>();
+
+            Flux<SearchStreamEvent> updates = Flux.create(sink -> {
+                Disposable search = requestCoalescer
+                        .execute(cacheKey, () -> executeAndCache(query, limit, offset, sort, tags, cacheKey, revalidate, sink::next))
+                        .subscribe(
+                                response -> {
+                                    finalResponse.set(response);
+                                    logQuery(query, sort, tags, limit, offset, response.total(), false);
+                                    sink.next(results("final", response));
+                                },
+                                sink::error,
+                                sink::complete
+                        );
+                sink.onDispose(search);
+            });
+            return updates
+                    .concatWith(Flux.defer(() -> snippetUpgrades(previews, finalResponse.get())))
+                    .doFinally(signal -> {
+                        Disposable feed = previewFeed.get();
+                        if (feed != null) {
+                            feed.dispose();
+                        }
+                    });
+        });
+    }
+
+    private Flux<SearchStreamEvent> snippetUpgrades(Flux<SnippetUpdate> previews, SearchResponse response) {
+        SearchProperties.Enrichment enrichment = searchProperties.getEnrichment();
+        if (response == null || !enrichment.isEnabled() || response.items().isEmpty()) {
+            return Flux.empty();
         }
+        Set<String> pending = ConcurrentHashMap.newKeySet();
+        response.items().stream()
+                .limit(Math.max(1, enrichment.getTopN()))
+                .forEach(item -> pending.add(item.link()));
+        // A link that is no longer queued or being fetched has no preview coming: it was never enqueued, its
+        // enrichment failed, or its preview was published already and is replayed from the buffer on subscription.
+        Flux<Long> nothingPending = Flux.interval(PENDING_CHECK_INTERVAL)
+                .filter(tick -> pending.stream().noneMatch(asyncEnrichmentService::isPending));
+        return previews
+                .filter(preview -> pending.remove(preview.link()))
+                .map(preview -> new SearchStreamEvent("snippet", null, null, preview))
+                .takeUntil(event -> pending.isEmpty())
+                .takeUntilOther(nothingPending)
+                .take(Duration.ofMillis(Math.max(0, searchProperties.getStreaming().getEnrichmentWaitMillis())));
+    }
 
-        return executeAndCache(normalizedQuery, limit, normalizedOffset, normalizedSort, normalizedTags, cacheKey);
+    private SearchStreamEvent results(String phase, SearchResponse response) {
+        return new SearchStreamEvent("results", phase, response, null);
     }
 
-    private SearchResponse executeAndCache(String query, int limit, int offset, String sort, List<String> tags, String cacheKey) {
+    // refreshed: the entry was due and providers were asked. cached: the new response replaced the entry; a partial
+    // one (timed out, or refused by the rate governor) leaves the existing entry alone. providerCalls counts the
+    // StackExchange calls the rate governor granted, including invalid-key retries.
+    public record WarmResult(boolean refreshed, boolean cached, int providerCalls) {
+    }
+
+    // Recomputes the entry unless it stays fresh beyond refreshAhead. Not logged as a query, and provider calls
+    // are charged to the background share of the rate budget.
+    public Mono<WarmResult> warm(String query, int limit, String sort, List<String> tags, Duration refreshAhead) {
+        String normalizedQuery = query == null ? "" : query.trim();
+        String normalizedSort = normalizeSort(sort);
+        List<String> normalizedTags = normalizeTags(tags);
+        String cacheKey = buildCacheKey(normalizedQuery, limit, 0, normalizedSort, normalizedTags);
+        Instant refreshBefore = Instant.now().plus(refreshAhead);
+        StackExchangeRateGovernor.GrantedCalls grantedCalls = new StackExchangeRateGovernor.GrantedCalls();
+
+        // Coalesced under its own key: an interactive search joining a warm-up would inherit its background
+        // priority and could be refused by the rate governor.
+        return timed(cacheLookupTimer, cacheService.get(cacheKey))
+                .filter(cached -> cached.softExpiresAt().isAfter(refreshBefore))
+                .map(cached -> new WarmResult(false, false, 0))
+                .switchIfEmpty(Mono.defer(() -> requestCoalescer
+                        .execute(WARM_KEY_PREFIX + cacheKey, () -> executeAndCache(
+                                normalizedQuery, limit, 0, normalizedSort, normalizedTags, cacheKey, true, null
+                        ))
+                        .map(response -> new WarmResult(true, !isPartial(response), grantedCalls.count()))))
+                .contextWrite(context -> context
+                        .put(StackExchangeRateGovernor.Priority.class, StackExchangeRateGovernor.Priority.BACKGROUND)
+                        .put(StackExchangeRateGovernor.GrantedCalls.class, grantedCalls));
+    }
+
+    private SearchResponse serveCached(
+            CachedSearchResponse cached,
+            String query,
+            int limit,
+            int offset,
+            String sort,
+            List<String> tags,
+            String cacheKey
+    ) {
+        Instant now = Instant.now();
+        SearchResponse response = cached.response();
+        if (cached.isStale(now)) {
+            response = markStale(response);
+            scheduleRefresh(query, limit, offset, sort, tags, cacheKey);
+        } else if (cached.shouldRefreshEarly(now, searchProperties.getCache().getEarlyRefreshBeta())) {
+            scheduleRefresh(query, limit, offset, sort, tags, cacheKey);
+        }
+        logQuery(query, sort, tags, limit, offset, response.total(), true);
+        return response;
+    }
+
+    private void scheduleRefresh(String query, int limit, int offset, String sort, List<String> tags, String cacheKey) {
+        if (!refreshingKeys.add(cacheKey)) {
+            return;
+        }
+        requestCoalescer
+                .execute(cacheKey, () -> executeAndCache(query, limit, offset, sort, tags, cacheKey, true, null))
+                .subscribeOn(cacheRefreshScheduler)
+                .doFinally(signal -> refreshingKeys.remove(cacheKey))
+                .subscribe(response -> { }, error -> {
+                    refreshFailures.increment();
+                    log.warn("Background refresh of {} failed", cacheKey, error);
+                });
+    }
+
+    private SearchResponse markStale(SearchResponse response) {
+        return new SearchResponse(
+                response.query(),
+                response.sort(),
+                response.tags(),
+                response.limit(),
+                response.offset(),
+                response.hasMore(),
+                response.providerHasMore(),
+                response.generatedAt(),
+                response.total(),
+                response.items(),
+                true,
+                response.timedOutProviders(),
+                response.skippedProviders(),
+                response.failedProviders()
+        );
+    }
+
+    // Refreshes pass revalidate so that a cached response is rebuilt from fresh provider pages rather than from
+    // the pages it was built from. Streaming callers pass progress to receive the local-only ranking and a
+    // re-ranked response after each provider but the last; the final response is only emitted by the Mono.
+    private Mono<SearchResponse> executeAndCache(
+            String query,
+            int limit,
+            int offset,
+            String sort,
+            List<String> tags,
+            String cacheKey,
+            boolean revalidate,
+            Consumer<SearchStreamEvent> progress
+    ) {
+        long startedAt = System.nanoTime();
+        long deadlineNanos = startedAt + TimeUnit.MILLISECONDS.toNanos(
+                Math.max(1, searchProperties.getProviders().getLatencyBudgetMillis())
+        );
         int fetchSize = computeProviderFetchSize(limit);
-        ProviderSearchPage providerPage = runProviderSearch(query, fetchSize, offset, sort, tags);
-        List<ProviderSearchResult> providerResults = providerPage.items();
-        List<ProviderSearchResult> deduped = deduplicate(providerResults);
+        // The index takes a read lock and scores postings, so keep it off the Redis and HTTP client event loops.
+        Mono<ProviderSearchPage> localSearch = Mono.fromCallable(() -> localSearchIndex.search(query, tags, fetchSize, offset))
+                .subscribeOn(Schedulers.boundedElastic());
+        Mono<SearchResponse> execution = timed(localIndexTimer, localSearch).flatMap(localPage -> searchProviders(
+                query, limit, offset, sort, tags, cacheKey, revalidate, progress, startedAt, deadlineNanos, fetchSize, localPage
+        ));
+        return timed(executeTimer, execution);
+    }
+
+    private Mono<SearchResponse> searchProviders(
+            String query,
+            int limit,
+            int offset,
+            String sort,
+            List<String> tags,
+            String cacheKey,
+            boolean revalidate,
+            Consumer<SearchStreamEvent> progress,
+            long startedAt,
+            long deadlineNanos,
+            int fetchSize,
+            ProviderSearchPage localPage
+    ) {
+        boolean backoff = backoffManager.isBackoffActive();
+        Consumer<ProviderOutcome> onProviderOutcome = null;
+        if (progress != null) {
+            if (!backoff && !localPage.items().isEmpty()) {
+                progress.accept(results("local", rankResponse(
+                        query, sort, tags, limit, offset, timedDeduplicate(localPage.items()), localPage.hasMore(), false, List.of(), List.of(), List.of()
+                )));
+            }
+            onProviderOutcome = partialResults(query, sort, tags, limit, offset, localPage, progress);
+        }
+        // Providers in backoff are not called, so the response is partial just like one from a refused call.
+        Mono<List<ProviderOutcome>> providerSearch = backoff
+                ? Mono.just(clients.stream()
+                        .map(client -> new ProviderOutcome(providerName(client), ProviderSearchPage.empty(), false, true, false))
+                        .toList())
+                : timed(providersTimer, runProviderSearch(query, fetchSize, offset, sort, tags, revalidate, deadlineNanos, onProviderOutcome));
+
+        return providerSearch
+                .flatMap(outcomes -> {
+                    List<ProviderSearchResult> providerItems = new ArrayList<>();
+                    boolean providerHasMore = false;
+                    List<String> timedOutProviders = new ArrayList<>();
+                    List<String> skippedProviders = new ArrayList<>();
+                    List<String> failedProviders = new ArrayList<>();
+                    for (ProviderOutcome outcome : outcomes) {
+                        providerItems.addAll(outcome.page().items());
+                        providerHasMore = providerHasMore || outcome.page().hasMore();
+                        if (outcome.timedOut()) {
+                            timedOutProviders.add(outcome.provider());
+                        }
+                        if (outcome.skipped()) {
+                            skippedProviders.add(outcome.provider());
+                        }
+                        if (outcome.failed()) {
+                            failedProviders.add(outcome.provider());
+                        }
+                    }
+                    List<ProviderSearchResult> providerResults = timedDeduplicate(providerItems);
+
+                    List<ProviderSearchResult> fused = new ArrayList<>(providerResults);
+                    fused.addAll(localPage.items());
+                    List<ProviderSearchResult> deduped = timedDeduplicate(fused);
+
+                    SearchResponse response = rankResponse(
+                            query,
+                            sort,
+                            tags,
+                            limit,
+                            offset,
+                            deduped,
+                            providerHasMore || localPage.hasMore(),
+                            providerHasMore,
+                            timedOutProviders,
+                            skippedProviders,
+                            failedProviders
+                    );
+                    List<ProviderSearchResult> enrichmentCandidates = selectEnrichmentCandidates(deduped, response.items());
+                    long queryPopularity = queryLogService.recentHits(query);
 
-        List<SearchItem> rankedItems = ranker.rank(query, deduped, limit);
-        boolean hasMore = providerPage.hasMore();
-        SearchResponse response = new SearchResponse(
+                    // Enqueued before the response is emitted so a stream can tell which of its links have a preview
+                    // coming. Ingestion may wait briefly on a full queue, so hand it to a thread that is allowed to block.
+                    asyncEnrichmentService.enqueue(enrichmentCandidates, queryPopularity);
+                    Schedulers.boundedElastic().schedule(() -> persistTimer.record(() -> persistDocuments(providerResults)));
+                    // A partial response is served but not cached; the next request tries the missing providers again.
+                    if (isPartial(response)) {
+                        return Mono.just(response);
+                    }
+                    return timed(cacheWriteTimer, cacheService.put(cacheKey, response, Duration.ofNanos(System.nanoTime() - startedAt)))
+                            .thenReturn(response);
+                });
+    }
+
+    private static boolean isPartial(SearchResponse response) {
+        return !response.timedOutProviders().isEmpty()
+                || !response.skippedProviders().isEmpty()
+                || !response.failedProviders().isEmpty();
+    }
+
+    private SearchResponse rankResponse(
+            String query,
+            String sort,
+            List<String> tags,
+            int limit,
+            int offset,
+            List<ProviderSearchResult> candidates,
+            boolean hasMore,
+            boolean providerHasMore,
+            List<String> timedOutProviders,
+            List<String> skippedProviders,
+            List<String> failedProviders
+    ) {
+        List<SearchItem> rankedItems = rankTimer.record(() -> ranker.rank(query, candidates, limit));
+        return new SearchResponse(
                 query,
                 sort,
                 tags,
                 limit,
                 offset,
                 hasMore,
-                providerPage.hasMore(),
+                providerHasMore,
                 Instant.now(),
                 rankedItems.size(),
-                rankedItems
+                rankedItems,
+                false,
+                timedOutProviders,
+                skippedProviders,
+                failedProviders
         );
-        List<ProviderSearchResult> enrichmentCandidates = selectEnrichmentCandidates(deduped, rankedItems);
+    }
 
-        persistDocuments(deduped);
-        cacheService.put(cacheKey, response);
-        asyncEnrichmentService.enqueue(enrichmentCandidates);
-        logQuery(query, sort, tags, limit, offset, response.total(), false);
-        return response;
+    // Outcomes arrive one at a time from Flux.merge, so the list needs no locking.
+    private Consumer<ProviderOutcome> partialResults(
+            String query,
+            String sort,
+            List<String> tags,
+            int limit,
+            int offset,
+            ProviderSearchPage localPage,
+            Consumer<SearchStreamEvent> progress
+    ) {
+        List<ProviderOutcome> received = new ArrayList<>();
+        return outcome -> {
+            received.add(outcome);
+            if (received.size() >= clients.size()) {
+                return;
+            }
+            List<ProviderSearchResult> fused = new ArrayList<>(localPage.items());
+            boolean providerHasMore = false;
+            List<String> timedOutProviders = new ArrayList<>();
+            List<String> skippedProviders = new ArrayList<>();
+            List<String> failedProviders = new ArrayList<>();
+            for (ProviderOutcome providerOutcome : received) {
+                fused.addAll(providerOutcome.page().items());
+                providerHasMore = providerHasMore || providerOutcome.page().hasMore();
+                if (providerOutcome.timedOut()) {
+                    timedOutProviders.add(providerOutcome.provider());
+                }
+                if (providerOutcome.skipped()) {
+                    skippedProviders.add(providerOutcome.provider());
+                }
+                if (providerOutcome.failed()) {
+                    failedProviders.add(providerOutcome.provider());
+                }
+            }
+            progress.accept(results("partial", rankResponse(
+                    query,
+                    sort,
+                    tags,
+                    limit,
+                    offset,
+                    timedDeduplicate(fused),
+                    providerHasMore || localPage.hasMore(),
+                    providerHasMore,
+                    timedOutProviders,
+                    skippedProviders,
+                    failedProviders
+            )));
+        };
     }
 
-    private ProviderSearchPage runProviderSearch(String query, int limit, int offset, String sort, List<String> tags) {
-        List<CompletableFuture<ProviderSearchPage>> tasks = clients.stream()
-                .map(client -> CompletableFuture.supplyAsync(() -> client.search(query, limit, offset, sort, tags), searchExecutor))
+    private Mono<List<ProviderOutcome>> runProviderSearch(
+            String query,
+            int limit,
+            int offset,
+            String sort,
+            List<String> tags,
+            boolean revalidate,
+            long deadlineNanos,
+            Consumer<ProviderOutcome> onOutcome
+    ) {
+        List<Mono<ProviderOutcome>> tasks = clients.stream()
+                .map(client -> providerWindow(client, query, limit, offset, sort, tags, revalidate, deadlineNanos))
                 .toList();
 
-        CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
-
-        List<ProviderSearchResult> results = new ArrayList<>();
-        boolean hasMore = false;
-        for (CompletableFuture<ProviderSearchPage> task : tasks) {
-            try {
-                ProviderSearchPage page = task.get();
-                results.addAll(page.items());
-                hasMore = hasMore || page.hasMore();
-            } catch (InterruptedException ignored) {
-                Thread.currentThread().interrupt();
-            } catch (ExecutionException ignored) {
+        // Ranking is CPU work; keep it off the HTTP client's event loop.
+        return Flux.merge(tasks)
+                .publishOn(Schedulers.parallel())
+                .doOnNext(outcome -> {
+                    if (onOutcome != null) {
+                        onOutcome.accept(outcome);
+                    }
+                })
+                .collectList();
+    }
+
+    // Serves [offset, offset + limit) of the provider's results from the fixed-size pages covering it. Pages
+    // that miss the deadline, are refused by the provider's circuit breaker or the rate governor, or whose call
+    // fails contribute nothing and mark the provider as timed out, skipped or failed.
+    private Mono<ProviderOutcome> providerWindow(
+            ExternalSearchClient client,
+            String query,
+            int limit,
+            int offset,
+            String sort,
+            List<String> tags,
+            boolean revalidate,
+            long deadlineNanos
+    ) {
+        String provider = providerName(client);
+        int firstPage = offset / PROVIDER_PAGE_SIZE;
+        int lastPage = (offset + limit - 1) / PROVIDER_PAGE_SIZE;
+        AtomicBoolean timedOut = new AtomicBoolean();
+        AtomicBoolean skipped = new AtomicBoolean();
+        AtomicBoolean failed = new AtomicBoolean();
+        return Flux.range(firstPage, lastPage - firstPage + 1)
+                .flatMapSequential(page -> providerPage(client, provider, query, page, sort, tags, revalidate, deadlineNanos, skipped, failed)
+                        .onErrorResume(TimeoutException.class, ignored -> {
+                            timedOut.set(true);
+                            return Mono.just(ProviderSearchPage.empty());
+                        }))
+                .collectList()
+                .map(pages -> {
+                    List<ProviderSearchResult> results = new ArrayList<>();
+                    for (ProviderSearchPage page : pages) {
+                        results.addAll(page.items());
+                    }
+                    int from = Math.min(results.size(), offset - firstPage * PROVIDER_PAGE_SIZE);
+                    int to = Math.min(results.size(), from + limit);
+                    boolean hasMore = pages.get(pages.size() - 1).hasMore() || results.size() > to;
+                    return new ProviderOutcome(
+                            provider,
+                            new ProviderSearchPage(List.copyOf(results.subList(from, to)), hasMore),
+                            timedOut.get(),
+                            skipped.get(),
+                            failed.get()
+                    );
+                });
+    }
+
+    // Errors with TimeoutException when the provider's timeout or the request deadline passes first. A call the
+    // client declined to make (rate governor, backoff) marks the provider skipped, and any other error marks it
+    // failed; neither is cached.
+    private Mono<ProviderSearchPage> providerPage(
+            ExternalSearchClient client,
+            String provider,
+            String query,
+            int page,
+            String sort,
+            List<String> tags,
+            boolean revalidate,
+            long deadlineNanos,
+            AtomicBoolean skipped,
+            AtomicBoolean failed
+    ) {
+        ProviderPageCache.Key key = new ProviderPageCache.Key(provider, query, tags, sort, PROVIDER_PAGE_SIZE, page);
+        ProviderSearchPage cached = revalidate ? null : providerPageCache.get(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return Mono.defer(() -> {
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return Mono.error(new TimeoutException("Search deadline passed"));
+            }
+            ProviderCircuitBreakers.Breaker breaker = circuitBreakers.forProvider(provider);
+            ProviderCircuitBreakers.Permit permit = breaker.tryAcquire();
+            if (permit == null) {
+                skipped.set(true);
+                return Mono.just(ProviderSearchPage.empty());
             }
+            Duration timeout = Duration.ofNanos(Math.min(remainingNanos, providerTimeout(provider).toNanos()));
+            Mono<ProviderSearchPage> call = timedCall(client, provider, query, page, sort, tags);
+            Duration hedgeDelay = latencyTracker.hedgeDelay(provider);
+            // Half-open probes stay single calls; a provider that is recovering gets no extra load.
+            if (hedgeDelay != null && hedgeDelay.compareTo(timeout) < 0 && !permit.probe()) {
+                // An empty hedge (refused by the rate governor, failed) must not beat a call that may still succeed.
+                Mono<ProviderSearchPage> hedge = Mono.delay(hedgeDelay)
+                        .doOnNext(ignored -> latencyTracker.hedged(provider))
+                        .then(call)
+                        .filter(fetched -> !fetched.items().isEmpty());
+                // Both empty means neither call was made.
+                call = Mono.firstWithValue(call, hedge)
+                        .onErrorResume(
+                                error -> error instanceof NoSuchElementException && error.getSuppressed().length == 0,
+                                ignored -> Mono.empty()
+                        );
+            }
+            long startedAt = System.nanoTime();
+            return call
+                    .timeout(timeout)
+                    .doOnSuccess(fetched -> {
+                        if (fetched == null) {
+                            breaker.onIgnored(permit);
+                        } else {
+                            breaker.onSuccess(permit, System.nanoTime() - startedAt);
+                        }
+                    })
+                    .doOnError(error -> breaker.onFailure(permit, System.nanoTime() - startedAt))
+                    .doOnCancel(() -> breaker.onIgnored(permit))
+                    .doOnError(TimeoutException.class, ignored -> latencyTracker.timedOut(provider, timeout));
+        })
+                .doOnNext(fetched -> providerPageCache.put(key, fetched))
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    skipped.set(true);
+                    return ProviderSearchPage.empty();
+                }))
+                .onErrorResume(error -> !(error instanceof TimeoutException), ignored -> {
+                    failed.set(true);
+                    return Mono.just(ProviderSearchPage.empty());
+                });
+    }
+
+    private Mono<ProviderSearchPage> timedCall(
+            ExternalSearchClient client,
+            String provider,
+            String query,
+            int page,
+            String sort,
+            List<String> tags
+    ) {
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            return client.searchReactive(query, PROVIDER_PAGE_SIZE, page * PROVIDER_PAGE_SIZE, sort, tags)
+                    .subscribeOn(providerScheduler)
+                    .doOnNext(ignored -> latencyTracker.record(provider, System.nanoTime() - startedAt));
+        });
+    }
+
+    private Duration providerTimeout(String provider) {
+        SearchProperties.Providers providers = searchProperties.getProviders();
+        long timeoutMillis = STACKOVERFLOW_PROVIDER.equals(provider)
+                ? providers.getStackoverflow().getTimeoutMillis()
+                : providers.getLatencyBudgetMillis();
+        return Duration.ofMillis(Math.max(1, timeoutMillis));
+    }
+
+    // "stackoverflow" for StackOverflowSearchClient; used in cache keys, metrics and timedOutProviders.
+    static String providerName(ExternalSearchClient client) {
+        String name = ClassUtils.getUserClass(client).getSimpleName();
+        if (name.endsWith(CLIENT_SUFFIX) && name.length() > CLIENT_SUFFIX.length()) {
+            name = name.substring(0, name.length() - CLIENT_SUFFIX.length());
         }
-        return new ProviderSearchPage(results, hasMore);
+        return name.toLowerCase(Locale.ROOT);
     }
 
-    private List<ProviderSearchResult> deduplicate(List<ProviderSearchResult> raw) {
+    private record ProviderOutcome(
+            String provider,
+            ProviderSearchPage page,
+            boolean timedOut,
+            boolean skipped,
+            boolean failed
+    ) {
+    }
+
+    static List<ProviderSearchResult> deduplicate(List<ProviderSearchResult> raw) {
         Map<String, ProviderSearchResult> byUrl = new LinkedHashMap<>();
         for (ProviderSearchResult result : raw) {
             if (result.url() == null || result.url().isBlank()) {
@@ -141,39 +746,18 @@ public class SearchService {
                 .toList();
     }
 
-    @Transactional
-    public void persistDocuments(List<ProviderSearchResult> results) {
-        List<DocumentEntity> entities = new ArrayList<>();
-        for (ProviderSearchResult result : results) {
-            DocumentEntity entity = null;
-            if (result.questionId() != null) {
-                entity = documentRepository.findByQuestionId(result.questionId()).orElse(null);
-            }
-            if (entity == null) {
-                entity = documentRepository.findById(result.url()).orElseGet(DocumentEntity::new);
-            }
+    private List<ProviderSearchResult> timedDeduplicate(List<ProviderSearchResult> raw) {
+        return deduplicateTimer.record(() -> deduplicate(raw));
+    }
 
-            entity.setQuestionId(result.questionId());
-            if (entity.getUrl() == null || entity.getUrl().isBlank()) {
-                entity.setUrl(result.url());
-            }
-            entity.setSource(result.source().name());
-            entity.setTitle(result.title());
-            entity.setNormalizedText(normalize(result.title() + " " + result.snippet()));
-            entity.setMetadataJson(result.metadataJson());
-            entity.setTags(String.join(",", result.tags()));
-            entity.setQuestionText("");
-            entity.setBestAnswerText("");
-            entity.setFetchedAt(Instant.now());
-            entities.add(entity);
-        }
-        documentRepository.saveAll(entities);
+    public void persistDocuments(List<ProviderSearchResult> results) {
+        documentIngestionService.enqueue(results);
     }
 
-    private String buildCacheKey(String query, int limit, int offset, String sort, List<String> tags) {
+    static String buildCacheKey(String query, int limit, int offset, String sort, List<String> tags) {
         String normalizedQuery = query.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
         String tagPart = tags.isEmpty() ? "*" : String.join(",", tags);
-        return "search:v4:" + normalizedQuery + ":" + limit + ":" + offset + ":" + sort + ":" + tagPart;
+        return "search:v5:" + normalizedQuery + ":" + limit + ":" + offset + ":" + sort + ":" + tagPart;
     }
 
     private List<ProviderSearchResult> selectEnrichmentCandidates(
@@ -197,15 +781,8 @@ public class SearchService {
 
     private int computeProviderFetchSize(int limit) {
         int safeLimit = Math.max(1, limit);
-        int overFetched = safeLimit * 3;
-        return Math.min(MAX_PROVIDER_FETCH_SIZE, overFetched);
-    }
-
-    private String normalize(String input) {
-        if (input == null) {
-            return "";
-        }
-        return input.replaceAll("\\s+", " ").trim().toLowerCase(Locale.ROOT);
+        int overFetched = safeLimit * Math.max(1, searchProperties.getRanking().getProviderOverFetchFactor());
+        return Math.min(PROVIDER_PAGE_SIZE, overFetched);
     }
 
     private String normalizeSort(String sort) {
@@ -231,15 +808,26 @@ public class SearchService {
     }
 
     private void logQuery(String query, String sort, List<String> tags, int limit, int offset, int resultCount, boolean cacheHit) {
-        QueryLogEntity log = new QueryLogEntity();
-        log.setQueryText(query);
-        log.setSort(sort);
-        log.setTags(tags.isEmpty() ? "" : String.join(",", tags));
-        log.setLimitValue(limit);
-        log.setOffsetValue(offset);
-        log.setResultCount(resultCount);
-        log.setCacheHit(cacheHit);
-        log.setCreatedAt(Instant.now());
-        queryLogRepository.save(log);
+        queryLogTimer.record(() -> queryLogService.record(query, sort, tags, limit, offset, resultCount, cacheHit));
+    }
+
+    // Cancelled work (a client that went away, a losing coalesced call) is not a latency sample.
+    private static <T> Mono<T> timed(Timer timer, Mono<T> stage) {
+        return Mono.defer(() -> {
+            long startedAt = System.nanoTime();
+            return stage.doFinally(signal -> {
+                if (signal != SignalType.CANCEL) {
+                    timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        });
+    }
+
+    private static Timer stageTimer(String stage, MeterRegistry meterRegistry) {
+        return Timer.builder("search.stage")
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,57 @@
+package com.searchengine.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int length = text.length();
+        for (int index = 0; index < length; ) {
+            char ch = text.charAt(index);
+            if (ch < 128) {
+                index++;
+                if ((ch >= 'a' && ch <= 'z') || (ch >= '0' && ch <= '9')) {
+                    current.append(ch);
+                } else if (ch >= 'A' && ch <= 'Z') {
+                    current.append((char) (ch + ('a' - 'A')));
+                } else if (!current.isEmpty()) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                }
+                continue;
+            }
+            int codePoint = text.codePointAt(index);
+            index += Character.charCount(codePoint);
+            if (isWordCharacter(codePoint)) {
+                current.appendCodePoint(Character.toLowerCase(codePoint));
+            } else if (!current.isEmpty()) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (!current.isEmpty()) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+    private static boolean isWordCharacter(int codePoint) {
+        if (Character.isLetter(codePoint)) {
+            return true;
+        }
+        int type = Character.getType(codePoint);
+        return type == Character.DECIMAL_DIGIT_NUMBER
+                || type == Character.LETTER_NUMBER
+                || type == Character.OTHER_NUMBER;
+    }
+}
@@ -0,0 +1,157 @@
+package com.searchengine.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.searchengine.config.SearchProperties.OverflowPolicy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+public class WriteBehindQueue<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindQueue.class);
+
+    private final String name;
+    private final BlockingQueue<T> queue;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Consumer<List<T>> flushAction;
+    private final Object flushLock = new Object();
+    private final Object batchReady = new Object();
+    private final Thread flusher;
+    private final Counter dropped;
+    private final Counter failedBatches;
+    private final DistributionSummary batchSizes;
+    private final Timer flushLatency;
+    private volatile boolean running = true;
+
+    public WriteBehindQueue(
+            String name,
+            int capacity,
+            int batchSize,
+            Duration flushInterval,
+            OverflowPolicy overflowPolicy,
+            Duration blockTimeout,
+            Consumer<List<T>> flushAction,
+            MeterRegistry meterRegistry
+    ) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = Math.max(1, flushInterval.toNanos());
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.DROP : overflowPolicy;
+        this.blockTimeoutNanos = blockTimeout == null ? 0L : Math.max(0, blockTimeout.toNanos());
+        this.flushAction = flushAction;
+        this.dropped = Counter.builder("search.write.behind.dropped").tag("queue", name).register(meterRegistry);
+        this.failedBatches = Counter.builder("search.write.behind.failed.batches").tag("queue", name).register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("search.write.behind.batch.size").tag("queue", name).register(meterRegistry);
+        this.flushLatency = Timer.builder("search.write.behind.flush").tag("queue", name).register(meterRegistry);
+        Gauge.builder("search.write.behind.queue.depth", queue, BlockingQueue::size).tag("queue", name).register(meterRegistry);
+
+        this.flusher = new Thread(this::runFlusher, "write-behind-" + name);
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public boolean offer(T item) {
+        if (!enqueue(item)) {
+            dropped.increment();
+            return false;
+        }
+        if (queue.size() >= batchSize) {
+            synchronized (batchReady) {
+                batchReady.notifyAll();
+            }
+        }
+        return true;
+    }
+
+    private boolean enqueue(T item) {
+        if (queue.offer(item)) {
+            return true;
+        }
+        if (overflowPolicy != OverflowPolicy.BLOCK || blockTimeoutNanos <= 0) {
+            return false;
+        }
+        synchronized (batchReady) {
+            batchReady.notifyAll();
+        }
+        try {
+            return queue.offer(item, blockTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    public void flush() {
+        synchronized (flushLock) {
+            List<T> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        synchronized (batchReady) {
+            batchReady.notifyAll();
+        }
+        try {
+            flusher.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 5000);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void runFlusher() {
+        while (running) {
+            synchronized (batchReady) {
+                if (queue.size() < batchSize) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(batchReady, flushIntervalNanos);
+                    } catch (InterruptedException ignored) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+            flush();
+        }
+    }
+
+    private void write(List<T> batch) {
+        long startedAt = System.nanoTime();
+        try {
+            flushAction.accept(batch);
+        } catch (RuntimeException exception) {
+            failedBatches.increment();
+            log.error("Dropped a batch of {} items from write-behind queue {}", batch.size(), name, exception);
+        } finally {
+            batchSizes.record(batch.size());
+            flushLatency.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -8,7 +8,14 @@ CREATE TABLE IF NOT EXISTS documents (
     tags TEXT,
     question_text TEXT,
     best_answer_text TEXT,
-    fetched_at TIMESTAMP WITH TIME ZONE NOT NULL
+    snippet TEXT,
+    question_score INT,
+    answered BOOLEAN,
+    accepted_answer_id BIGINT,
+    published_at TIMESTAMP WITH TIME ZONE,
+    fetched_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    enriched_at TIMESTAMP WITH TIME ZONE,
+    content_hash VARCHAR(64)
 );
 
 CREATE TABLE IF NOT EXISTS query_logs (
@@ -22,3 +29,16 @@ CREATE TABLE IF NOT EXISTS query_logs (
     cache_hit BOOLEAN NOT NULL,
     created_at TIMESTAMP WITH TIME ZONE NOT NULL
 );
+
+CREATE TABLE IF NOT EXISTS query_stats_hourly (
+    bucket_start TIMESTAMP WITH TIME ZONE PRIMARY KEY,
+    query_count BIGINT NOT NULL,
+    cache_hit_count BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS query_hits_hourly (
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    query_text VARCHAR(512) NOT NULL,
+    hits BIGINT NOT NULL,
+    PRIMARY KEY (bucket_start, query_text)
+);
@@ -21,6 +21,7 @@ const docSourceLink = document.getElementById("docSourceLink");
 const docCloseButton = document.getElementById("docCloseButton");
 
 let currentOffset = 0;
+let activeStream = null;
 
 initializeFromUrl();
 
@@ -75,6 +76,62 @@ async function runSearch() {
     updatePager(0);
     updateUrl(params);
 
+    if (activeStream) {
+        activeStream.close();
+        activeStream = null;
+    }
+    if (window.EventSource) {
+        streamSearch(params);
+        return;
+    }
+    await fetchSearch(params);
+}
+
+// Renders cached or local results as soon as they arrive, re-renders as providers answer, then swaps in
+// enriched snippets. Falls back to a plain request when the stream fails before showing anything, which
+// also surfaces validation errors that EventSource cannot read.
+function streamSearch(params) {
+    const source = new EventSource(`/api/search/stream?${params.toString()}`);
+    activeStream = source;
+    let rendered = false;
+
+    const finish = () => {
+        source.close();
+        if (activeStream === source) {
+            activeStream = null;
+            setLoading(false);
+        }
+    };
+
+    source.addEventListener("results", (event) => {
+        if (activeStream !== source) {
+            return;
+        }
+        const update = JSON.parse(event.data);
+        renderResults(update.response);
+        rendered = true;
+        // Only enriched snippets can follow; the form is usable again.
+        if (update.phase === "final" || (update.phase === "cached" && !update.response.stale)) {
+            setLoading(false);
+        }
+    });
+    source.addEventListener("snippet", (event) => {
+        if (activeStream === source) {
+            upgradeSnippet(JSON.parse(event.data).snippet);
+        }
+    });
+    source.addEventListener("done", finish);
+    source.addEventListener("error", () => {
+        const current = activeStream === source;
+        finish();
+        if (current && !rendered) {
+            fetchSearch(params);
+        }
+    });
+}
+
+async function fetchSearch(params) {
+    setLoading(true);
     try {
         const response = await fetch(`/api/search?${params.toString()}`);
         const payload = await response.json();
@@ -110,10 +167,17 @@ function renderResults(payload) {
         return;
     }
 
-    setStatus(`Found ${payload.total} result${payload.total === 1 ? "" : "s"}.`);
+    const staleNote = payload.stale ? " Showing cached results while fresh ones load in the background." : "";
+    const timedOut = payload.timedOutProviders || [];
+    const skipped = payload.skippedProviders || [];
+    const failed = payload.failedProviders || [];
+    const partialNote = (timedOut.length ? ` Partial results: ${timedOut.join(", ")} did not answer in time.` : "")
+        + (skipped.length ? ` ${skipped.join(", ")} is unavailable; showing local results.` : "")
+        + (failed.length ? ` ${failed.join(", ")} returned an error; showing the results that did arrive.` : "");
+    setStatus(`Found ${payload.total} result${payload.total === 1 ? "" : "s"}.${staleNote}${partialNote}`);
     prevButton.disabled = currentOffset === 0;
     const providerHasMore = typeof payload.providerHasMore === "boolean" ? payload.providerHasMore : payload.hasMore;
-    nextButton.disabled = !providerHasMore;
+    nextButton.disabled = !(providerHasMore || payload.hasMore);
 
     for (const item of items) {
         const fragment = resultCardTemplate.content.cloneNode(true);
@@ -132,6 +196,7 @@ function renderResults(payload) {
         meta.textContent = `Score: ${item.questionScore} • Rank: ${item.score.toFixed(2)} • Source: ${item.source}${tagText ? ` • ${tagText}` : ""}`;
 
         snippet.textContent = item.snippet || "No snippet available.";
+        snippet.dataset.link = item.link;
 
         if (item.accepted) {
             acceptedBadge.hidden = false;
@@ -160,6 +225,17 @@ function renderResults(payload) {
     }
 }
 
+function upgradeSnippet(update) {
+    if (!update || !update.snippet) {
+        return;
+    }
+    for (const snippet of resultsArea.querySelectorAll(".snippet")) {
+        if (snippet.dataset.link === update.link) {
+            snippet.textContent = update.snippet;
+        }
+    }
+}
+
 async function loadDocumentDetail(questionId) {
     if (!questionId) {
         return;
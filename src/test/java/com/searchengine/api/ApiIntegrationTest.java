@@ -4,33 +4,48 @@ import com.searchengine.domain.ProviderSearchResult;
 import com.searchengine.domain.SourceType;
 import com.searchengine.integration.ProviderSearchPage;
 import com.searchengine.integration.StackOverflowSearchClient;
+import com.searchengine.api.dto.SearchItem;
+import com.searchengine.api.dto.SearchResponse;
 import com.searchengine.service.AsyncEnrichmentService;
+import com.searchengine.service.CachedSearchResponse;
 import com.searchengine.service.SearchCacheService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import reactor.core.publisher.Mono;
 
 import java.time.Instant;
 import java.util.List;
-import java.util.Optional;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
 @ActiveProfiles("test")
 class ApiIntegrationTest {
 
@@ -48,9 +63,9 @@ class ApiIntegrationTest {
 
     @BeforeEach
     void setup() {
-        when(searchCacheService.get(anyString())).thenReturn(Optional.empty());
-        doNothing().when(searchCacheService).put(anyString(), any());
-        doNothing().when(asyncEnrichmentService).enqueue(anyList());
+        when(searchCacheService.get(anyString())).thenReturn(Mono.empty());
+        when(searchCacheService.put(anyString(), any(), any())).thenReturn(Mono.empty());
+        doNothing().when(asyncEnrichmentService).enqueue(anyList(), anyLong());
     }
 
     @Test
@@ -70,10 +85,10 @@ class ApiIntegrationTest {
                 "{\"score\":42,\"answered\":true}"
         );
 
-        when(stackOverflowSearchClient.search(anyString(), anyInt(), anyInt(), anyString(), anyList()))
-                .thenReturn(new ProviderSearchPage(List.of(sample), false));
+        when(stackOverflowSearchClient.searchReactive(anyString(), anyInt(), anyInt(), anyString(), anyList()))
+                .thenReturn(Mono.just(new ProviderSearchPage(List.of(sample), false)));
 
-        mockMvc.perform(get("/api/search")
+        performSearch(get("/api/search")
                         .param("q", "spring boot dependency injection")
                         .param("sort", "relevance")
                         .param("limit", "10")
@@ -86,6 +101,7 @@ class ApiIntegrationTest {
                 .andExpect(jsonPath("$.offset").value(0))
                 .andExpect(jsonPath("$.hasMore").value(false))
                 .andExpect(jsonPath("$.providerHasMore").value(false))
+                .andExpect(jsonPath("$.timedOutProviders").isEmpty())
                 .andExpect(jsonPath("$.items[0].questionId").value(12345))
                 .andExpect(jsonPath("$.items[0].accepted").value(true))
                 .andExpect(jsonPath("$.items[0].answered").value(true))
@@ -109,10 +125,10 @@ class ApiIntegrationTest {
                 "{\"score\":30,\"answered\":true}"
         );
 
-        when(stackOverflowSearchClient.search(anyString(), anyInt(), anyInt(), anyString(), anyList()))
-                .thenReturn(new ProviderSearchPage(List.of(sample), false));
+        when(stackOverflowSearchClient.searchReactive(anyString(), anyInt(), anyInt(), anyString(), anyList()))
+                .thenReturn(Mono.just(new ProviderSearchPage(List.of(sample), false)));
 
-        mockMvc.perform(get("/api/search")
+        performSearch(get("/api/search")
                         .param("q", "spring utf8 parse")
                         .param("sort", "relevance")
                         .param("limit", "10")
@@ -139,10 +155,10 @@ class ApiIntegrationTest {
                 "{\"score\":20}"
         );
 
-        when(stackOverflowSearchClient.search(anyString(), anyInt(), anyInt(), anyString(), anyList()))
-                .thenReturn(new ProviderSearchPage(List.of(sample), false));
+        when(stackOverflowSearchClient.searchReactive(anyString(), anyInt(), anyInt(), anyString(), anyList()))
+                .thenReturn(Mono.just(new ProviderSearchPage(List.of(sample), false)));
 
-        mockMvc.perform(get("/api/search")
+        performSearch(get("/api/search")
                         .param("q", "redis cache spring")
                         .param("limit", "10")
                         .param("offset", "0")
@@ -155,4 +171,101 @@ class ApiIntegrationTest {
                 .andExpect(jsonPath("$.queriesLast24Hours").value(1))
                 .andExpect(jsonPath("$.topQueries[0].query").value("redis cache spring"));
     }
+
+    @Test
+    void searchEndpoint_servesStaleCacheEntryWhileRefreshing() throws Exception {
+        SearchItem item = new SearchItem(
+                321L,
+                "Stale cached result",
+                "STACKOVERFLOW",
+                List.of("java"),
+                3,
+                true,
+                false,
+                "Served from cache.",
+                "https://stackoverflow.com/questions/321",
+                2.5
+        );
+        SearchResponse cachedResponse = new SearchResponse(
+                "stale cache query",
+                "relevance",
+                List.of(),
+                10,
+                0,
+                false,
+                false,
+                Instant.now().minusSeconds(900),
+                1,
+                List.of(item),
+                false,
+                List.of(),
+                List.of(),
+                List.of()
+        );
+        when(searchCacheService.get(anyString())).thenReturn(Mono.just(new CachedSearchResponse(
+                cachedResponse,
+                Instant.now().minusSeconds(60),
+                Instant.now().plusSeconds(600),
+                120
+        )));
+        when(stackOverflowSearchClient.searchReactive(anyString(), anyInt(), anyInt(), anyString(), anyList()))
+                .thenReturn(Mono.just(ProviderSearchPage.empty()));
+
+        performSearch(get("/api/search")
+                        .param("q", "stale cache query")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stale").value(true))
+                .andExpect(jsonPath("$.items[0].title").value("Stale cached result"));
+
+        verify(searchCacheService, timeout(2000)).put(anyString(), any(), any());
+    }
+
+    @Test
+    void searchStreamEndpoint_emitsRankedResultsThenDone() throws Exception {
+        ProviderSearchResult sample = new ProviderSearchResult(
+                654L,
+                "https://stackoverflow.com/questions/654/example",
+                "How to stream server-sent events from Spring MVC?",
+                "Return a Flux of ServerSentEvent from the controller.",
+                SourceType.STACKOVERFLOW,
+                12,
+                true,
+                null,
+                1.1,
+                Instant.parse("2025-12-10T00:00:00Z"),
+                List.of("spring-mvc"),
+                "{\"score\":12,\"answered\":true}"
+        );
+
+        when(stackOverflowSearchClient.searchReactive(anyString(), anyInt(), anyInt(), anyString(), anyList()))
+                .thenReturn(Mono.just(new ProviderSearchPage(List.of(sample), false)));
+
+        performSearch(get("/api/search/stream")
+                        .param("q", "spring sse stream")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/event-stream"))
+                .andExpect(content().string(containsString("event:results")))
+                .andExpect(content().string(containsString("\"phase\":\"final\"")))
+                .andExpect(content().string(containsString("\"questionId\":654")))
+                .andExpect(content().string(containsString("event:done")));
+    }
+
+    @Test
+    void prometheusEndpoint_exposesPipelineStageTimersAndSaturationGauges() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("search_stage_seconds_bucket{application=\"coding-meta-search-engine\",stage=\"providers\"")))
+                .andExpect(content().string(containsString("stage=\"rank\"")))
+                .andExpect(content().string(containsString("search_executor_waiting{")))
+                .andExpect(content().string(containsString("search_stackexchange_backoff_active")));
+    }
+
+    private ResultActions performSearch(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
@@ -0,0 +1,92 @@
+package com.searchengine.integration;
+
+import com.searchengine.config.SearchProperties;
+import com.searchengine.integration.StackExchangeRateGovernor.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StackExchangeRateGovernorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void reserve_grantsTheBurstThenRefillsOrLetsCallersBorrowUpToMaxWait() throws InterruptedException {
+        StackExchangeRateGovernor governor = governor(4, 2, 0);
+
+        long first = governor.reserve(Priority.INTERACTIVE, Duration.ZERO);
+        long second = governor.reserve(Priority.INTERACTIVE, Duration.ZERO);
+        long third = governor.reserve(Priority.INTERACTIVE, Duration.ZERO);
+        // A quarter of a second per token: 300 ms later one token is back and the next is 0.2 tokens along.
+        Thread.sleep(300);
+        long refilled = governor.reserve(Priority.INTERACTIVE, Duration.ZERO);
+        long waitNanos = governor.reserve(Priority.INTERACTIVE, Duration.ofSeconds(1));
+        double tokensLeft = governor.state().tokensAvailable();
+
+        assertThat(new long[] {first, second, third}).containsExactly(0L, 0L, -1L);
+        assertThat(refilled).isZero();
+        assertThat(waitNanos).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(250));
+        assertThat(tokensLeft).isZero();
+        assertThat(denied("interactive")).isEqualTo(1.0);
+    }
+
+    @Test
+    void reserve_keepsInteractiveReserveAwayFromBackgroundCalls() {
+        StackExchangeRateGovernor governor = governor(1, 10, 4);
+
+        int background = 0;
+        while (governor.reserve(Priority.BACKGROUND, Duration.ZERO) == 0) {
+            background++;
+        }
+        assertThat(background).isEqualTo(6);
+        assertThat(governor.admits(Priority.BACKGROUND)).isFalse();
+        assertThat(governor.admits(Priority.INTERACTIVE)).isTrue();
+
+        int interactive = 0;
+        while (governor.reserve(Priority.INTERACTIVE, Duration.ZERO) == 0) {
+            interactive++;
+        }
+        assertThat(interactive).isEqualTo(4);
+        assertThat(denied("background")).isEqualTo(1.0);
+    }
+
+    @Test
+    void reserve_chargesBackgroundMoreAsDailyQuotaRunsDownAndStopsAtTheFloor() {
+        StackExchangeRateGovernor slowdown = governor(1, 10, 4);
+        slowdown.registerQuota(2_500, 10_000);
+        int background = 0;
+        while (slowdown.reserve(Priority.BACKGROUND, Duration.ZERO) == 0) {
+            background++;
+        }
+        // Cost is 0.5 / 0.25 = 2 tokens per call out of the 6 above the reserve.
+        assertThat(background).isEqualTo(3);
+
+        StackExchangeRateGovernor stopped = governor(1, 10, 4);
+        stopped.registerQuota(900, 10_000);
+        assertThat(stopped.reserve(Priority.BACKGROUND, Duration.ZERO)).isEqualTo(-1L);
+        assertThat(stopped.state().backgroundAdmitted()).isFalse();
+        assertThat(stopped.reserve(Priority.INTERACTIVE, Duration.ZERO)).isZero();
+
+        stopped.registerQuota(0, 10_000);
+        assertThat(stopped.reserve(Priority.INTERACTIVE, Duration.ZERO)).isEqualTo(-1L);
+        assertThat(stopped.admits(Priority.INTERACTIVE)).isFalse();
+        assertThat(stopped.state().quotaRemaining()).isZero();
+    }
+
+    private StackExchangeRateGovernor governor(double requestsPerSecond, int burst, int interactiveReserve) {
+        SearchProperties properties = new SearchProperties();
+        SearchProperties.Providers.RateLimit rateLimit = properties.getProviders().getStackoverflow().getRateLimit();
+        rateLimit.setRequestsPerSecond(requestsPerSecond);
+        rateLimit.setBurst(burst);
+        rateLimit.setInteractiveReserveTokens(interactiveReserve);
+        return new StackExchangeRateGovernor(properties, meterRegistry);
+    }
+
+    private double denied(String priority) {
+        return meterRegistry.get("search.stackexchange.rate.denied").tag("priority", priority).counter().count();
+    }
+}
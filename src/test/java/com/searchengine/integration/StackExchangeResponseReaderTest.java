@@ -0,0 +1,117 @@
+package com.searchengine.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.searchengine.config.SearchProperties;
+import com.searchengine.domain.ProviderSearchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StackExchangeResponseReaderTest {
+
+    private static final String SEARCH_EXCERPTS = "/fixtures/stackexchange/search-excerpts-100.json";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void read_mapsFixtureSearchPageTheSameWhetherWholeOrInSmallChunks() throws IOException {
+        byte[] payload = fixture();
+        StackOverflowSearchClient client = client();
+        JsonNode tree = objectMapper.readTree(payload);
+
+        ProviderSearchPage whole = client.parse(payload);
+        StackExchangeResponseReader.Envelope<String> chunked = StackExchangeResponseReader.read(
+                chunks(payload, 7),
+                Set.of("question_id", "title", "tags"),
+                item -> item.text("question_id") + "|" + item.text("title") + "|" + item.list("tags")
+        ).block();
+
+        assertThat(whole.items()).hasSize(tree.path("items").size());
+        assertThat(whole.hasMore()).isTrue();
+        ProviderSearchResult first = whole.items().get(0);
+        JsonNode expected = tree.path("items").get(0);
+        assertThat(first.questionId()).isEqualTo(expected.path("question_id").asLong());
+        assertThat(first.title()).isEqualTo(expected.path("title").asText());
+        assertThat(first.tags()).containsExactly("java", "java-stream");
+        assertThat(first.acceptedAnswerId()).isEqualTo(expected.path("accepted_answer_id").asLong());
+        assertThat(first.snippet()).contains("Collectors.groupingBy").doesNotContain("<span");
+
+        assertThat(chunked).isNotNull();
+        assertThat(chunked.items()).hasSize(whole.items().size());
+        assertThat(chunked.items().get(0)).isEqualTo(first.questionId() + "|" + first.title() + "|[java, java-stream]");
+        assertThat(chunked.quotaMax()).isEqualTo(10000);
+        assertThat(chunked.quotaRemaining()).isEqualTo(9871);
+    }
+
+    @Test
+    void read_picksUpEnvelopeFieldsAndSkipsUnrequestedValues() {
+        String json = """
+                {"items":[
+                  {"answer_id":7,"body":"<p>kept</p>","owner":{"reputation":1,"badges":[{"gold":1}]},"comments":[[1],[2]]},
+                  {"answer_id":null,"body":"no id"},
+                  {"answer_id":8,"body":null,"nested":{"answer_id":99}}
+                 ],
+                 "extra":{"items":[{"answer_id":100}]},
+                 "has_more":false,"backoff":10,"quota_max":300,"quota_remaining":12,
+                 "error_name":"throttle_violation","error_message":"slow down"}
+                """;
+
+        StackExchangeResponseReader.Envelope<String> envelope = StackExchangeResponseReader.read(
+                json.getBytes(StandardCharsets.UTF_8),
+                Set.of("answer_id", "body"),
+                item -> item.asLong("answer_id") <= 0 ? null : item.asLong("answer_id") + ":" + item.text("body")
+        );
+
+        assertThat(envelope.items()).containsExactly("7:<p>kept</p>", "8:");
+        assertThat(envelope.hasMore()).isFalse();
+        assertThat(envelope.backoffSeconds()).isEqualTo(10);
+        assertThat(envelope.quotaMax()).isEqualTo(300);
+        assertThat(envelope.quotaRemaining()).isEqualTo(12);
+        assertThat(envelope.errorName()).isEqualTo("throttle_violation");
+        assertThat(envelope.errorMessage()).isEqualTo("slow down");
+
+        StackExchangeResponseReader.Envelope<String> empty = StackExchangeResponseReader.read(new byte[0], Set.of(), item -> "");
+        assertThat(empty.items()).isEmpty();
+        assertThat(empty.quotaRemaining()).isEqualTo(-1);
+    }
+
+    private Flux<DataBuffer> chunks(byte[] payload, int size) {
+        List<DataBuffer> buffers = new ArrayList<>();
+        for (int from = 0; from < payload.length; from += size) {
+            byte[] chunk = Arrays.copyOfRange(payload, from, Math.min(payload.length, from + size));
+            buffers.add(DefaultDataBufferFactory.sharedInstance.wrap(chunk));
+        }
+        return Flux.fromIterable(buffers);
+    }
+
+    private StackOverflowSearchClient client() {
+        return new StackOverflowSearchClient(
+                WebClient.create(),
+                "http://localhost",
+                "",
+                new StackExchangeBackoffManager(new SimpleMeterRegistry()),
+                new StackExchangeRateGovernor(new SearchProperties(), new SimpleMeterRegistry())
+        );
+    }
+
+    private byte[] fixture() throws IOException {
+        try (InputStream input = getClass().getResourceAsStream(SEARCH_EXCERPTS)) {
+            assertThat(input).isNotNull();
+            return input.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.searchengine.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Offline capacity check: the application talks to a local StackExchange stub and a closed loop of clients sends
+// a Zipfian query mix to /api/search. Only runs with -Ploadtest; settings are system properties (loadtest.*), and
+// the report is printed and written to target/loadtest-report.json. Without a local Redis only the in-process
+// cache tier is exercised.
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class SearchLoadTest {
+
+    private static final Path REPORT = Path.of("target", "loadtest-report.json");
+    private static final StackExchangeStubServer STUB = startStub();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void pointProvidersAtStub(DynamicPropertyRegistry registry) {
+        registry.add("search.providers.stackoverflow.base-url", STUB::baseUrl);
+        registry.add("search.enrichment.enabled", () -> true);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Test
+    void searchUnderZipfianLoad_staysWithinCapacityBudget() throws Exception {
+        int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10L));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 60L));
+        ZipfianQueryMix mix = new ZipfianQueryMix(
+                STUB.fixtureTitles(),
+                Double.parseDouble(System.getProperty("loadtest.zipf-exponent", "1.0")),
+                Double.parseDouble(System.getProperty("loadtest.second-page-rate", "0.1")),
+                Long.getLong("loadtest.seed", 42L)
+        );
+
+        run(mix, concurrency, warmup, Long.getLong("loadtest.seed", 42L));
+        Snapshot before = snapshot();
+        List<Sample> samples = run(mix, concurrency, duration, Long.getLong("loadtest.seed", 42L) + 1);
+        Snapshot after = snapshot();
+
+        Map<String, Object> report = report(mix, concurrency, duration, samples, before, after);
+        String rendered = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(report);
+        System.out.println(rendered);
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, rendered);
+
+        double errorRate = (double) (long) report.get("failedRequests") / Math.max(1, samples.size());
+        assertThat(errorRate).isLessThanOrEqualTo(Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")));
+        long maxP99Millis = Long.getLong("loadtest.max-p99-millis", 0L);
+        if (maxP99Millis > 0) {
+            assertThat((double) report.get("p99Millis")).isLessThanOrEqualTo(maxP99Millis);
+        }
+        double minThroughput = Double.parseDouble(System.getProperty("loadtest.min-throughput", "0"));
+        if (minThroughput > 0) {
+            assertThat((double) report.get("throughputPerSecond")).isGreaterThanOrEqualTo(minThroughput);
+        }
+    }
+
+    // Each client sends its next request as soon as the previous one answers, until the time is up.
+    private List<Sample> run(ZipfianQueryMix mix, int concurrency, Duration duration, long seed) throws Exception {
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long endAt = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<List<Sample>>> futures = new ArrayList<>();
+            for (int client = 0; client < concurrency; client++) {
+                Random random = new Random(seed * 1_000 + client);
+                futures.add(clients.submit(() -> {
+                    List<Sample> samples = new ArrayList<>();
+                    while (System.nanoTime() < endAt) {
+                        samples.add(send(http, mix.next(random)));
+                    }
+                    return samples;
+                }));
+            }
+            List<Sample> samples = new ArrayList<>();
+            for (Future<List<Sample>> future : futures) {
+                samples.addAll(future.get());
+            }
+            return samples;
+        } finally {
+            clients.shutdownNow();
+            clients.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private Sample send(HttpClient http, ZipfianQueryMix.Request request) {
+        URI uri = UriComponentsBuilder.fromUriString("http://localhost:" + port + "/api/search")
+                .queryParam("q", request.query())
+                .queryParam("limit", request.limit())
+                .queryParam("offset", request.offset())
+                .build()
+                .encode()
+                .toUri();
+        long startedAt = System.nanoTime();
+        try {
+            HttpResponse<Void> response = http.send(
+                    HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding()
+            );
+            return new Sample(System.nanoTime() - startedAt, response.statusCode() == 200);
+        } catch (IOException ignored) {
+            return new Sample(System.nanoTime() - startedAt, false);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+            return new Sample(System.nanoTime() - startedAt, false);
+        }
+    }
+
+    private Map<String, Object> report(
+            ZipfianQueryMix mix,
+            int concurrency,
+            Duration duration,
+            List<Sample> samples,
+            Snapshot before,
+            Snapshot after
+    ) {
+        long[] latencies = samples.stream().mapToLong(Sample::nanos).sorted().toArray();
+        long failed = samples.stream().filter(sample -> !sample.ok()).count();
+        int requests = Math.max(1, samples.size());
+        double lookups = after.cacheLookups() - before.cacheLookups();
+        double hits = after.cacheHits() - before.cacheHits();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("concurrency", concurrency);
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("distinctQueries", mix.distinctQueries());
+        report.put("requests", samples.size());
+        report.put("failedRequests", failed);
+        report.put("throughputPerSecond", round(samples.size() / (double) Math.max(1, duration.toSeconds())));
+        report.put("p50Millis", percentileMillis(latencies, 0.50));
+        report.put("p90Millis", percentileMillis(latencies, 0.90));
+        report.put("p99Millis", percentileMillis(latencies, 0.99));
+        report.put("maxMillis", latencies.length == 0 ? 0.0 : round(latencies[latencies.length - 1] / 1e6));
+        report.put("cacheHitRatio", lookups == 0 ? 0.0 : round(hits / lookups));
+        report.put("providerSearchCallsPerRequest", round((after.searchCalls() - before.searchCalls()) / (double) requests));
+        report.put("enrichmentCallsPerRequest", round((after.enrichmentCalls() - before.enrichmentCalls()) / (double) requests));
+        report.put("stubErrors", after.stubErrors() - before.stubErrors());
+        report.put("stubBackoffs", after.stubBackoffs() - before.stubBackoffs());
+        report.put("stageP95Millis", stageP95Millis());
+        return report;
+    }
+
+    // Percentiles come from each timer's sliding window (about two minutes), so a long run reports its tail end.
+    private Map<String, Double> stageP95Millis() {
+        Map<String, Double> stages = new LinkedHashMap<>();
+        for (Timer timer : meterRegistry.find("search.stage").timers()) {
+            double p95 = Arrays.stream(timer.takeSnapshot().percentileValues())
+                    .filter(value -> value.percentile() == 0.95)
+                    .mapToDouble(value -> value.value(TimeUnit.MILLISECONDS))
+                    .findFirst()
+                    .orElse(Double.NaN);
+            stages.put(timer.getId().getTag("stage"), round(p95));
+        }
+        return stages;
+    }
+
+    // Every lookup tries L1 first; an L1 miss that Redis answers still counts as a hit.
+    private Snapshot snapshot() {
+        double l1Hits = functionCount("cache.gets", "hit");
+        double l1Misses = functionCount("cache.gets", "miss");
+        double l2Hits = meterRegistry.find("search.cache.l2.requests").tag("result", "hit").counter() == null
+                ? 0
+                : meterRegistry.find("search.cache.l2.requests").tag("result", "hit").counter().count();
+        return new Snapshot(
+                l1Hits + l1Misses,
+                l1Hits + l2Hits,
+                STUB.calls(StackExchangeStubServer.Endpoint.SEARCH),
+                STUB.calls(StackExchangeStubServer.Endpoint.QUESTIONS) + STUB.calls(StackExchangeStubServer.Endpoint.ANSWERS),
+                STUB.errors(),
+                STUB.backoffs()
+        );
+    }
+
+    private double functionCount(String name, String result) {
+        FunctionCounter counter = meterRegistry.find(name).tag("cache", "search.l1").tag("result", result).functionCounter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return round(sorted[Math.max(0, index)] / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+
+    private static StackExchangeStubServer startStub() {
+        try {
+            return new StackExchangeStubServer(StackExchangeStubServer.Settings.fromSystemProperties());
+        } catch (IOException exception) {
+            throw new IllegalStateException("Could not start StackExchange stub", exception);
+        }
+    }
+
+    private record Sample(long nanos, boolean ok) {
+    }
+
+    private record Snapshot(
+            double cacheLookups,
+            double cacheHits,
+            long searchCalls,
+            long enrichmentCalls,
+            long stubErrors,
+            long stubBackoffs
+    ) {
+    }
+}
@@ -0,0 +1,281 @@
+package com.searchengine.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Local stand-in for api.stackexchange.com. /search/excerpts pages are cut from the fixture, rotated per query so
+// different queries rank different documents; /questions/{ids} and /answers/{ids} echo the requested ids with
+// fixture bodies. The fixture is synthetic: it has the shape of a /2.3/search/excerpts response, but its titles are
+// hand-written and its bodies and excerpts are generated filler text, not recorded API output. Every response waits
+// for a log-normal latency and may be replaced by an error or carry a backoff, as configured.
+class StackExchangeStubServer implements AutoCloseable {
+
+    static final String SEARCH_EXCERPTS = "/fixtures/stackexchange/search-excerpts-100.json";
+
+    // Latency is log-normal with the given median and p99; rates are per response, between 0 and 1.
+    record Settings(
+            long medianLatencyMillis,
+            long p99LatencyMillis,
+            double errorRate,
+            double backoffRate,
+            int backoffSeconds,
+            int quotaMax
+    ) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    Long.getLong("loadtest.stub.median-latency-millis", 120L),
+                    Long.getLong("loadtest.stub.p99-latency-millis", 900L),
+                    Double.parseDouble(System.getProperty("loadtest.stub.error-rate", "0.01")),
+                    Double.parseDouble(System.getProperty("loadtest.stub.backoff-rate", "0.0")),
+                    Integer.getInteger("loadtest.stub.backoff-seconds", 5),
+                    Integer.getInteger("loadtest.stub.quota-max", 100_000)
+            );
+        }
+    }
+
+    enum Endpoint {
+        SEARCH,
+        QUESTIONS,
+        ANSWERS
+    }
+
+    private static final double Z_99 = 2.3263;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Settings settings;
+    private final List<JsonNode> fixtureItems;
+    private final List<String> fixtureBodies;
+    private final Map<Endpoint, AtomicLong> calls = new HashMap<>();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong backoffs = new AtomicLong();
+    private final AtomicLong quotaUsed = new AtomicLong();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final HttpServer server;
+
+    StackExchangeStubServer(Settings settings) throws IOException {
+        this.settings = settings;
+        JsonNode fixture = readFixture();
+        this.fixtureItems = new ArrayList<>();
+        fixture.path("items").forEach(fixtureItems::add);
+        this.fixtureBodies = fixtureItems.stream()
+                .map(item -> item.path("body").asText(""))
+                .filter(body -> !body.isBlank())
+                .toList();
+        for (Endpoint endpoint : Endpoint.values()) {
+            calls.put(endpoint, new AtomicLong());
+        }
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 256);
+        server.createContext("/2.3/search/excerpts", exchange -> respond(exchange, Endpoint.SEARCH));
+        server.createContext("/2.3/questions/", exchange -> respond(exchange, Endpoint.QUESTIONS));
+        server.createContext("/2.3/answers/", exchange -> respond(exchange, Endpoint.ANSWERS));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    long calls(Endpoint endpoint) {
+        return calls.get(endpoint).get();
+    }
+
+    long errors() {
+        return errors.get();
+    }
+
+    long backoffs() {
+        return backoffs.get();
+    }
+
+    List<String> fixtureTitles() {
+        return fixtureItems.stream().map(item -> item.path("title").asText("")).filter(title -> !title.isBlank()).toList();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void respond(HttpExchange exchange, Endpoint endpoint) throws IOException {
+        try (exchange) {
+            calls.get(endpoint).incrementAndGet();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            sleep(latencyMillis(random));
+
+            if (random.nextDouble() < settings.errorRate()) {
+                errors.incrementAndGet();
+                write(exchange, 502, error());
+                return;
+            }
+            ObjectNode body = switch (endpoint) {
+                case SEARCH -> searchPage(parameters(exchange.getRequestURI()));
+                case QUESTIONS -> questions(ids(exchange.getRequestURI()));
+                case ANSWERS -> answers(ids(exchange.getRequestURI()));
+            };
+            long used = quotaUsed.incrementAndGet();
+            body.put("quota_max", settings.quotaMax());
+            body.put("quota_remaining", Math.max(0, settings.quotaMax() - used));
+            if (random.nextDouble() < settings.backoffRate()) {
+                backoffs.incrementAndGet();
+                body.put("backoff", settings.backoffSeconds());
+            }
+            write(exchange, 200, body);
+        }
+    }
+
+    private ObjectNode searchPage(Map<String, String> parameters) {
+        int pageSize = Math.max(1, Math.min(100, parseInt(parameters.get("pagesize"), 30)));
+        int page = Math.max(1, parseInt(parameters.get("page"), 1));
+        int start = Math.floorMod(parameters.getOrDefault("q", "").hashCode(), fixtureItems.size());
+        int maxResults = fixtureItems.size() * 3;
+
+        ArrayNode items = objectMapper.createArrayNode();
+        int first = (page - 1) * pageSize;
+        for (int index = first; index < Math.min(maxResults, first + pageSize); index++) {
+            items.add(fixtureItems.get((start + index) % fixtureItems.size()));
+        }
+        ObjectNode body = objectMapper.createObjectNode();
+        body.set("items", items);
+        body.put("has_more", first + pageSize < maxResults);
+        return body;
+    }
+
+    private ObjectNode questions(List<Long> ids) {
+        ArrayNode items = objectMapper.createArrayNode();
+        for (long id : ids) {
+            ObjectNode question = items.addObject();
+            question.put("question_id", id);
+            question.put("body", fixtureBody(id));
+            if (id % 3 != 0) {
+                question.put("accepted_answer_id", id + 1);
+            }
+        }
+        ObjectNode body = objectMapper.createObjectNode();
+        body.set("items", items);
+        body.put("has_more", false);
+        return body;
+    }
+
+    private ObjectNode answers(List<Long> ids) {
+        ArrayNode items = objectMapper.createArrayNode();
+        for (long id : ids) {
+            ObjectNode answer = items.addObject();
+            answer.put("answer_id", id);
+            answer.put("body", fixtureBody(id * 31));
+        }
+        ObjectNode body = objectMapper.createObjectNode();
+        body.set("items", items);
+        body.put("has_more", false);
+        return body;
+    }
+
+    private ObjectNode error() {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("error_id", 502);
+        body.put("error_name", "throttle_violation");
+        body.put("error_message", "too many requests from this IP, more requests available in 1 seconds");
+        return body;
+    }
+
+    private String fixtureBody(long seed) {
+        return fixtureBodies.get((int) Math.floorMod(seed, (long) fixtureBodies.size()));
+    }
+
+    private long latencyMillis(ThreadLocalRandom random) {
+        double median = Math.max(0, settings.medianLatencyMillis());
+        if (median == 0) {
+            return 0;
+        }
+        double sigma = Math.log(Math.max(median, settings.p99LatencyMillis()) / median) / Z_99;
+        return Math.round(median * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    private void write(HttpExchange exchange, int status, ObjectNode body) throws IOException {
+        byte[] payload = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, payload.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(payload);
+        }
+    }
+
+    private JsonNode readFixture() throws IOException {
+        try (InputStream input = StackExchangeStubServer.class.getResourceAsStream(SEARCH_EXCERPTS)) {
+            if (input == null) {
+                throw new IllegalStateException("Missing fixture " + SEARCH_EXCERPTS);
+            }
+            return objectMapper.readTree(input);
+        }
+    }
+
+    private static Map<String, String> parameters(URI uri) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                parameters.put(
+                        URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8)
+                );
+            }
+        }
+        return parameters;
+    }
+
+    private static List<Long> ids(URI uri) {
+        String path = uri.getPath();
+        List<Long> ids = new ArrayList<>();
+        for (String id : path.substring(path.lastIndexOf('/') + 1).split(";")) {
+            try {
+                ids.add(Long.parseLong(id));
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return ids;
+    }
+
+    private static int parseInt(String value, int fallback) {
+        try {
+            return value == null ? fallback : Integer.parseInt(value);
+        } catch (NumberFormatException ignored) {
+            return fallback;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
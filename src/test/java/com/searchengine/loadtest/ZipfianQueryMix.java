@@ -0,0 +1,58 @@
+package com.searchengine.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+// Query popularity in search logs is roughly Zipfian: the k-th most popular query is asked about 1/k^s as often as
+// the first. Queries are built from fixture titles (full title, and its first three and first five words) and
+// popularity ranks are shuffled with a fixed seed so runs are comparable.
+class ZipfianQueryMix {
+
+    record Request(String query, int limit, int offset) {
+    }
+
+    private final List<String> queries;
+    private final double[] cumulative;
+    private final double secondPageRate;
+
+    ZipfianQueryMix(List<String> titles, double exponent, double secondPageRate, long seed) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String title : titles) {
+            String[] words = title.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9#+.\\- ]", " ").trim().split("\\s+");
+            distinct.add(String.join(" ", words));
+            distinct.add(String.join(" ", Arrays.copyOf(words, Math.min(3, words.length))));
+            distinct.add(String.join(" ", Arrays.copyOf(words, Math.min(5, words.length))));
+        }
+        List<String> ranked = new ArrayList<>(distinct);
+        Collections.shuffle(ranked, new Random(seed));
+        this.queries = List.copyOf(ranked);
+        this.secondPageRate = secondPageRate;
+
+        this.cumulative = new double[queries.size()];
+        double total = 0;
+        for (int rank = 0; rank < queries.size(); rank++) {
+            total += 1.0 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        for (int rank = 0; rank < cumulative.length; rank++) {
+            cumulative[rank] /= total;
+        }
+    }
+
+    int distinctQueries() {
+        return queries.size();
+    }
+
+    Request next(Random random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int rank = Math.min(queries.size() - 1, index >= 0 ? index : -index - 1);
+        int offset = random.nextDouble() < secondPageRate ? 10 : 0;
+        return new Request(queries.get(rank), 10, offset);
+    }
+}
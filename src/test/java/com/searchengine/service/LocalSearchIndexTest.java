@@ -0,0 +1,47 @@
+package com.searchengine.service;
+
+import com.searchengine.config.SearchProperties;
+import com.searchengine.domain.ProviderSearchResult;
+import com.searchengine.persistence.DocumentEntity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalSearchIndexTest {
+
+    private static final String URL = "https://stackoverflow.com/questions/1";
+
+    private final LocalSearchIndex index = new LocalSearchIndex(null, new SearchProperties());
+
+    @Test
+    void indexAll_mergesFreshExcerptMetadataIntoEnrichedEntry() {
+        DocumentEntity enriched = document("Old title about streams", 3, "java");
+        enriched.setQuestionText("Carrier thread pinning inside synchronized blocks");
+        enriched.setEnrichedAt(Instant.now());
+        index.index(enriched);
+
+        index.index(document("Virtual threads pinned by synchronized", 42, "java,virtual-threads"));
+
+        ProviderSearchResult byEnrichedBody = index.search("carrier pinning", List.of("virtual-threads"), 10, 0).items().get(0);
+        assertThat(byEnrichedBody.title()).isEqualTo("Virtual threads pinned by synchronized");
+        assertThat(byEnrichedBody.questionScore()).isEqualTo(42);
+        assertThat(byEnrichedBody.tags()).containsExactly("java", "virtual-threads");
+        assertThat(index.search("virtual", List.of(), 10, 0).items()).extracting(ProviderSearchResult::url).containsExactly(URL);
+        assertThat(index.search("streams", List.of(), 10, 0).items()).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    private static DocumentEntity document(String title, int score, String tags) {
+        DocumentEntity entity = new DocumentEntity();
+        entity.setUrl(URL);
+        entity.setQuestionId(1L);
+        entity.setTitle(title);
+        entity.setSnippet("Search excerpt");
+        entity.setQuestionScore(score);
+        entity.setTags(tags);
+        return entity;
+    }
+}
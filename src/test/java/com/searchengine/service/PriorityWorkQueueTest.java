@@ -0,0 +1,66 @@
+package com.searchengine.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriorityWorkQueueTest {
+
+    private static final Duration NO_WINDOW = Duration.ofMillis(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> dropped = new ArrayList<>();
+
+    @Test
+    void take_handsOutHighestPriorityFirstAndEqualPrioritiesInArrivalOrder() throws InterruptedException {
+        PriorityWorkQueue<String> queue = queue(10, null);
+        queue.offer("low", 1.0);
+        queue.offer("high", 3.0);
+        queue.offer("mid-first", 2.0);
+        queue.offer("mid-second", 2.0);
+
+        assertThat(queue.take(3, NO_WINDOW)).containsExactly("high", "mid-first", "mid-second");
+        assertThat(queue.take(3, NO_WINDOW)).containsExactly("low");
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void offer_whenFullEvictsLowestPriorityOnlyForHigherPriorityItems() throws InterruptedException {
+        PriorityWorkQueue<String> queue = queue(2, null);
+        queue.offer("a", 1.0);
+        queue.offer("b", 2.0);
+
+        assertThat(queue.offer("c", 1.0)).isFalse();
+        assertThat(dropped).isEmpty();
+        assertThat(queue.offer("d", 3.0)).isTrue();
+        assertThat(dropped).containsExactly("a");
+
+        assertThat(queue.take(10, NO_WINDOW)).containsExactly("d", "b");
+        assertThat(droppedCount("overflow")).isEqualTo(2.0);
+    }
+
+    @Test
+    void take_dropsJobsOlderThanMaxAge() throws InterruptedException {
+        PriorityWorkQueue<String> queue = queue(10, Duration.ofMillis(20));
+        queue.offer("stale", 5.0);
+        Thread.sleep(50);
+        queue.offer("fresh", 1.0);
+
+        assertThat(queue.take(10, NO_WINDOW)).containsExactly("fresh");
+        assertThat(dropped).containsExactly("stale");
+        assertThat(droppedCount("expired")).isEqualTo(1.0);
+    }
+
+    private PriorityWorkQueue<String> queue(int capacity, Duration maxAge) {
+        return new PriorityWorkQueue<>("test", capacity, maxAge, dropped::add, meterRegistry);
+    }
+
+    private double droppedCount(String reason) {
+        return meterRegistry.get("search.priority.queue.dropped").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,114 @@
+package com.searchengine.service;
+
+import com.searchengine.config.SearchProperties;
+import com.searchengine.service.ProviderCircuitBreakers.Breaker;
+import com.searchengine.service.ProviderCircuitBreakers.Permit;
+import com.searchengine.service.ProviderCircuitBreakers.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProviderCircuitBreakersTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(2_000);
+    private static final long OPEN_MILLIS = 100;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void closedBreaker_opensOnFailureRateThenLetsAProbeThroughOnceOpenMillisPass() throws InterruptedException {
+        Breaker breaker = breaker(1);
+
+        breaker.onSuccess(breaker.tryAcquire(), FAST);
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+        breaker.onSuccess(breaker.tryAcquire(), FAST);
+        State beforeThreshold = breaker.snapshot().state();
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+        State afterThreshold = breaker.snapshot().state();
+        Permit rejected = breaker.tryAcquire();
+        Thread.sleep(OPEN_MILLIS + 50);
+        Permit probe = breaker.tryAcquire();
+        State probing = breaker.snapshot().state();
+
+        assertThat(beforeThreshold).isEqualTo(State.CLOSED);
+        assertThat(afterThreshold).isEqualTo(State.OPEN);
+        assertThat(rejected).isNull();
+        assertThat(meterRegistry.counter("search.provider.circuit.rejected", "provider", "stackoverflow").count()).isEqualTo(1.0);
+        assertThat(probe).isNotNull();
+        assertThat(probe.probe()).isTrue();
+        assertThat(probing).isEqualTo(State.HALF_OPEN);
+    }
+
+    @Test
+    void halfOpenBreaker_closesWhenEveryProbeSucceedsAndReopensOnAFailedOrSlowProbe() throws InterruptedException {
+        Breaker breaker = breaker(2);
+
+        open(breaker);
+        Permit first = breaker.tryAcquire();
+        Permit second = breaker.tryAcquire();
+        Permit third = breaker.tryAcquire();
+        breaker.onSuccess(first, FAST);
+        State afterOneProbe = breaker.snapshot().state();
+        breaker.onSuccess(second, FAST);
+        ProviderCircuitBreakers.Snapshot closed = breaker.snapshot();
+
+        open(breaker);
+        breaker.onFailure(breaker.tryAcquire(), FAST);
+        State afterFailedProbe = breaker.snapshot().state();
+        Thread.sleep(OPEN_MILLIS + 50);
+        breaker.onSuccess(breaker.tryAcquire(), SLOW);
+        State afterSlowProbe = breaker.snapshot().state();
+
+        assertThat(third).isNull();
+        assertThat(afterOneProbe).isEqualTo(State.HALF_OPEN);
+        assertThat(closed.state()).isEqualTo(State.CLOSED);
+        assertThat(closed.calls()).isZero();
+        assertThat(afterFailedProbe).isEqualTo(State.OPEN);
+        assertThat(afterSlowProbe).isEqualTo(State.OPEN);
+    }
+
+    @Test
+    void callStartedWhileClosed_doesNotDecideAHalfOpenTrial() throws InterruptedException {
+        Breaker breaker = breaker(1);
+
+        Permit startedWhileClosed = breaker.tryAcquire();
+        Permit failedWhileClosed = breaker.tryAcquire();
+        open(breaker);
+        Permit probe = breaker.tryAcquire();
+        breaker.onSuccess(startedWhileClosed, FAST);
+        breaker.onFailure(failedWhileClosed, FAST);
+        State afterLateOutcomes = breaker.snapshot().state();
+        Permit secondProbe = breaker.tryAcquire();
+        breaker.onSuccess(probe, FAST);
+        State afterProbe = breaker.snapshot().state();
+
+        assertThat(startedWhileClosed.probe()).isFalse();
+        assertThat(afterLateOutcomes).isEqualTo(State.HALF_OPEN);
+        assertThat(secondProbe).isNull();
+        assertThat(afterProbe).isEqualTo(State.CLOSED);
+    }
+
+    // Four failed calls open the breaker; returns once open-millis have passed, so the next call is a probe.
+    private void open(Breaker breaker) throws InterruptedException {
+        for (int call = 0; call < 4; call++) {
+            breaker.onFailure(breaker.tryAcquire(), FAST);
+        }
+        Thread.sleep(OPEN_MILLIS + 50);
+    }
+
+    private Breaker breaker(int halfOpenProbes) {
+        SearchProperties properties = new SearchProperties();
+        SearchProperties.Providers.CircuitBreaker settings = properties.getProviders().getCircuitBreaker();
+        settings.setWindowSize(4);
+        settings.setMinimumCalls(4);
+        settings.setFailureRateThreshold(0.5);
+        settings.setSlowCallMillis(1_000);
+        settings.setOpenMillis(OPEN_MILLIS);
+        settings.setHalfOpenProbes(halfOpenProbes);
+        return new ProviderCircuitBreakers(properties, meterRegistry).forProvider("stackoverflow");
+    }
+}
@@ -0,0 +1,96 @@
+package com.searchengine.service;
+
+import com.searchengine.api.dto.SearchItem;
+import com.searchengine.config.SearchProperties;
+import com.searchengine.domain.ProviderSearchResult;
+import com.searchengine.domain.SourceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RankerTest {
+
+    private final SearchProperties properties = new SearchProperties();
+    private final Ranker ranker = new Ranker(properties, new LocalSearchIndex(null, properties));
+
+    @Test
+    void rank_matchesWholeTokensInsteadOfSubstrings() {
+        List<SearchItem> items = ranker.rank("java", List.of(
+                result(1L, "Why is javascript so popular", "Browsers run it"),
+                result(2L, "Java generics explained", "Type erasure basics")
+        ), 10);
+
+        assertThat(items).extracting(SearchItem::questionId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void rank_boostsContiguousPhraseAcrossTitleAndSnippet() {
+        List<SearchItem> items = ranker.rank("stream api", List.of(
+                result(1L, "API design for a stream", "Nothing else"),
+                result(2L, "Using the Stream", "API of Java")
+        ), 10);
+
+        assertThat(items).extracting(SearchItem::questionId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void rank_keepsInputOrderForTiesAndRespectsLimit() {
+        List<ProviderSearchResult> results = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            results.add(result(id, "Same title", "Same snippet"));
+        }
+
+        List<SearchItem> items = ranker.rank("title", results, 3);
+
+        assertThat(items).extracting(SearchItem::questionId).containsExactly(1L, 2L, 3L);
+    }
+
+    @Test
+    void rank_largeCandidateSetReturnsBestFirst() {
+        List<ProviderSearchResult> results = new ArrayList<>();
+        for (long id = 1; id <= 5000; id++) {
+            results.add(result(id, id == 4321 ? "Kotlin coroutines" : "Unrelated " + id, "snippet"));
+        }
+
+        List<SearchItem> items = ranker.rank("kotlin coroutines", results, 5);
+
+        assertThat(items).hasSize(5);
+        assertThat(items.get(0).questionId()).isEqualTo(4321L);
+        assertThat(items).extracting(SearchItem::questionId).containsSubsequence(4321L, 1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void rank_bm25WeighsRareTermsAboveCommonOnes() {
+        List<ProviderSearchResult> results = List.of(
+                result(1L, "Java generics", "Type erasure"),
+                result(2L, "Java streams", "Collectors"),
+                result(3L, "Java records", "Compact constructors"),
+                result(4L, "Thread deadlock", "Lock ordering")
+        );
+
+        assertThat(ranker.rank("java deadlock", results, 4).get(0).questionId()).isEqualTo(1L);
+
+        properties.getRanking().setScorer(SearchProperties.RankingScorer.BM25);
+        assertThat(ranker.rank("java deadlock", results, 4).get(0).questionId()).isEqualTo(4L);
+    }
+
+    private ProviderSearchResult result(Long id, String title, String snippet) {
+        return new ProviderSearchResult(
+                id,
+                "https://stackoverflow.com/questions/" + id,
+                title,
+                snippet,
+                SourceType.STACKOVERFLOW,
+                0,
+                false,
+                null,
+                0.5,
+                null,
+                List.of(),
+                "{}"
+        );
+    }
+}
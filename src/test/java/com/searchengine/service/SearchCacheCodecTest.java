@@ -0,0 +1,91 @@
+package com.searchengine.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.searchengine.api.dto.SearchItem;
+import com.searchengine.api.dto.SearchResponse;
+import com.searchengine.config.SearchProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchCacheCodecTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void encode_roundTripsSmileAndCompressesLargeEntries() throws IOException {
+        SearchCacheCodec codec = codec(SearchProperties.CacheCodecFormat.SMILE, 1024);
+        CachedSearchResponse entry = entry(20);
+
+        byte[] encoded = codec.encode(entry);
+
+        assertThat(encoded[0]).isEqualTo(SearchCacheCodec.SMILE_DEFLATE);
+        assertThat(encoded.length).isLessThan(objectMapper.writeValueAsBytes(entry).length / 2);
+        assertThat(codec.decode(encoded)).isEqualTo(entry);
+    }
+
+    @Test
+    void encode_leavesSmallEntriesUncompressed() throws IOException {
+        SearchCacheCodec codec = codec(SearchProperties.CacheCodecFormat.JSON, 1024);
+        CachedSearchResponse entry = entry(0);
+
+        byte[] encoded = codec.encode(entry);
+
+        assertThat(encoded[0]).isEqualTo(SearchCacheCodec.JSON);
+        assertThat(codec.decode(encoded)).isEqualTo(entry);
+    }
+
+    @Test
+    void decode_readsLegacyJsonAndOtherFormatsButSkipsUnknownHeaders() throws IOException {
+        SearchCacheCodec smile = codec(SearchProperties.CacheCodecFormat.SMILE, 0);
+        SearchCacheCodec json = codec(SearchProperties.CacheCodecFormat.JSON, 0);
+        CachedSearchResponse entry = entry(3);
+
+        assertThat(smile.decode(objectMapper.writeValueAsBytes(entry))).isEqualTo(entry);
+        assertThat(smile.decode(json.encode(entry))).isEqualTo(entry);
+        assertThat(json.decode(smile.encode(entry))).isEqualTo(entry);
+
+        byte[] unknown = smile.encode(entry);
+        unknown[0] = 0x7F;
+        assertThat(smile.decode(unknown)).isNull();
+        assertThat(smile.decode(new byte[] {SearchCacheCodec.SMILE_DEFLATE, 1, 2, 3})).isNull();
+    }
+
+    private SearchCacheCodec codec(SearchProperties.CacheCodecFormat format, int compressionThresholdBytes) {
+        SearchProperties properties = new SearchProperties();
+        properties.getCache().setCodec(format);
+        properties.getCache().setCompressionThresholdBytes(compressionThresholdBytes);
+        return new SearchCacheCodec(objectMapper, properties, new SimpleMeterRegistry());
+    }
+
+    private CachedSearchResponse entry(int itemCount) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        List<SearchItem> items = new ArrayList<>();
+        for (long id = 1; id <= itemCount; id++) {
+            items.add(new SearchItem(
+                    id,
+                    "How do I collect a Java stream into a map " + id,
+                    "STACKOVERFLOW",
+                    List.of("java", "java-stream"),
+                    42,
+                    true,
+                    false,
+                    "Use Collectors.toMap with a merge function when keys can repeat in the stream.",
+                    "https://stackoverflow.com/questions/" + id,
+                    1.5
+            ));
+        }
+        SearchResponse response = new SearchResponse(
+                "java stream", "relevance", List.of("java"), 10, 0, true, true, now, items.size(), items, false, List.of(), List.of(), List.of()
+        );
+        return new CachedSearchResponse(response, now.plusSeconds(600), now.plusSeconds(2400), 120);
+    }
+}
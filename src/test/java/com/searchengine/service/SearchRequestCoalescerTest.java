@@ -0,0 +1,92 @@
+package com.searchengine.service;
+
+import com.searchengine.api.dto.SearchResponse;
+import com.searchengine.config.SearchProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchRequestCoalescerTest {
+
+    private final SearchProperties properties = new SearchProperties();
+    private final SearchRequestCoalescer coalescer = new SearchRequestCoalescer(properties, new SimpleMeterRegistry());
+
+    @Test
+    void followers_getLeaderFailureOrTimeoutWithoutRunningTheLoader() {
+        properties.getCoalescing().setFollowerTimeoutMillis(50);
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<SearchResponse> leader = Sinks.one();
+
+        Disposable leading = coalescer.execute("k", () -> {
+            loads.incrementAndGet();
+            return leader.asMono();
+        }).subscribe(response -> { }, error -> { });
+        assertThatThrownBy(() -> coalescer.execute("k", () -> counted(loads)).block())
+                .hasCauseInstanceOf(TimeoutException.class);
+
+        Mono<SearchResponse> follower = coalescer.execute("k", () -> counted(loads));
+        properties.getCoalescing().setFollowerTimeoutMillis(5000);
+        Thread failer = new Thread(() -> {
+            sleep(50);
+            leader.tryEmitError(new IllegalStateException("provider down"));
+        });
+        failer.start();
+        assertThatThrownBy(follower::block).isInstanceOf(IllegalStateException.class).hasMessage("provider down");
+        assertThat(loads).hasValue(1);
+        leading.dispose();
+    }
+
+    @Test
+    void abandonedLeader_handsTheKeyToOneNewLeader() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<SearchResponse> first = Sinks.one();
+        Sinks.One<SearchResponse> second = Sinks.one();
+
+        Disposable leading = coalescer.execute("k", () -> {
+            loads.incrementAndGet();
+            return first.asMono();
+        }).subscribe();
+        Mono<SearchResponse> loader = Mono.defer(() -> loads.incrementAndGet() == 2 ? second.asMono() : Mono.just(response("late")));
+        List<Mono<SearchResponse>> followers = List.of(
+                coalescer.execute("k", () -> loader).cache(),
+                coalescer.execute("k", () -> loader).cache(),
+                coalescer.execute("k", () -> loader).cache()
+        );
+        followers.forEach(Mono::subscribe);
+
+        leading.dispose();
+        second.tryEmitValue(response("fresh"));
+
+        for (Mono<SearchResponse> follower : followers) {
+            assertThat(follower.block().query()).isEqualTo("fresh");
+        }
+        assertThat(loads).hasValue(2);
+    }
+
+    private static Mono<SearchResponse> counted(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return Mono.just(response("follower"));
+    }
+
+    private static SearchResponse response(String query) {
+        return new SearchResponse(query, "relevance", List.of(), 10, 0, false, false, Instant.now(), 0, List.of(), false, List.of(), List.of(), List.of());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
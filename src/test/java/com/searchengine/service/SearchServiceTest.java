@@ -0,0 +1,420 @@
+package com.searchengine.service;
+
+import com.searchengine.api.dto.SearchItem;
+import com.searchengine.api.dto.SearchResponse;
+import com.searchengine.api.dto.SearchStreamEvent;
+import com.searchengine.api.dto.SnippetUpdate;
+import com.searchengine.config.SearchProperties;
+import com.searchengine.domain.ProviderSearchResult;
+import com.searchengine.domain.SourceType;
+import com.searchengine.integration.ExternalSearchClient;
+import com.searchengine.integration.ProviderSearchPage;
+import com.searchengine.integration.StackExchangeBackoffManager;
+import com.searchengine.integration.StackExchangeRateGovernor;
+import com.searchengine.integration.StackOverflowSearchClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SearchServiceTest {
+
+    private static final String PAGE = """
+            {"items":[{"question_id":1,"title":"Group a java stream","score":3,"is_answered":true,
+              "creation_date":1700000000,"tags":["java"],"excerpt":"Collectors.groupingBy"}],
+             "has_more":false,"quota_max":10000,"quota_remaining":9000}
+            """;
+    private static final String INVALID_KEY = """
+            {"items":[],"error_id":400,"error_name":"key_invalid","error_message":"key is not valid"}
+            """;
+
+    private final SearchProperties properties = new SearchProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SearchCacheService cacheService = mock(SearchCacheService.class);
+    private final AsyncEnrichmentService asyncEnrichmentService = mock(AsyncEnrichmentService.class);
+    private final StackExchangeBackoffManager backoffManager = new StackExchangeBackoffManager(meterRegistry);
+    private final StackExchangeRateGovernor rateGovernor = new StackExchangeRateGovernor(properties, meterRegistry);
+    private final ProviderLatencyTracker latencyTracker = new ProviderLatencyTracker(properties, meterRegistry);
+    private final ProviderCircuitBreakers circuitBreakers = new ProviderCircuitBreakers(properties, meterRegistry);
+    private final List<URI> requests = new CopyOnWriteArrayList<>();
+
+    @Test
+    void warm_refusedByRateGovernor_leavesTheCachedEntryAndChargesNoCall() {
+        // Below the background stop fraction every background call is refused.
+        rateGovernor.registerQuota(50, 10_000);
+        when(cacheService.get(anyString())).thenReturn(Mono.just(new CachedSearchResponse(
+                emptyResponse(), Instant.now().plusSeconds(10), Instant.now().plusSeconds(3600), 5
+        )));
+        SearchService service = service(stackOverflow("app-key"));
+
+        SearchService.WarmResult result = service.warm("java stream", 10, "relevance", List.of(), Duration.ofSeconds(60)).block();
+
+        assertThat(result).isEqualTo(new SearchService.WarmResult(true, false, 0));
+        assertThat(requests).isEmpty();
+        verify(cacheService, never()).put(anyString(), any(), any());
+    }
+
+    @Test
+    void warm_chargesTheInvalidKeyRetryAsASecondCall() {
+        when(cacheService.get(anyString())).thenReturn(Mono.empty());
+        when(cacheService.put(anyString(), any(), any())).thenReturn(Mono.empty());
+        SearchService service = service(stackOverflow("stale-key"));
+
+        SearchService.WarmResult result = service.warm("java stream", 10, "relevance", List.of(), Duration.ofSeconds(60)).block();
+
+        assertThat(result).isEqualTo(new SearchService.WarmResult(true, true, 2));
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0).getQuery()).contains("key=stale-key");
+        assertThat(requests.get(1).getQuery()).doesNotContain("key=");
+        verify(cacheService).put(anyString(), any(), any());
+    }
+
+    @Test
+    void search_doesNotJoinAWarmUpOfTheSameEntry() throws Exception {
+        when(cacheService.get(anyString())).thenReturn(Mono.empty());
+        when(cacheService.put(anyString(), any(), any())).thenReturn(Mono.empty());
+        HeldSearchClient client = new HeldSearchClient();
+        SearchService service = service(client);
+
+        Mono<SearchService.WarmResult> warm = service.warm("java stream", 10, "relevance", List.of(), Duration.ofSeconds(60)).cache();
+        Mono<SearchResponse> search = service.search("java stream", 10, 0, "relevance", List.of()).cache();
+        warm.subscribe();
+        search.subscribe();
+        long waitUntil = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (client.priorities.size() < 2 && System.nanoTime() < waitUntil) {
+            Thread.sleep(10);
+        }
+        client.release.tryEmitValue(ProviderSearchPage.empty());
+        SearchService.WarmResult warmed = warm.block(Duration.ofSeconds(5));
+        SearchResponse searched = search.block(Duration.ofSeconds(5));
+
+        assertThat(client.priorities).containsExactlyInAnyOrder(
+                StackExchangeRateGovernor.Priority.BACKGROUND,
+                StackExchangeRateGovernor.Priority.INTERACTIVE
+        );
+        assertThat(warmed).isNotNull();
+        assertThat(warmed.cached()).isTrue();
+        assertThat(searched).isNotNull();
+        assertThat(searched.skippedProviders()).isEmpty();
+    }
+
+    @Test
+    void search_slicesTheWindowAcrossTwoProviderPages() {
+        PagedSearchClient client = new PagedSearchClient(200);
+        SearchResponse response = search(client, 10, 45);
+
+        assertThat(client.offsets).containsExactlyInAnyOrder(0, 50);
+        assertThat(links(response)).containsExactlyInAnyOrderElementsOf(urls(45, 55));
+        assertThat(response.providerHasMore()).isTrue();
+    }
+
+    @Test
+    void search_servesWhatAShortLastPageHas() {
+        PagedSearchClient client = new PagedSearchClient(53);
+        SearchResponse response = search(client, 10, 45);
+
+        assertThat(client.offsets).containsExactlyInAnyOrder(0, 50);
+        assertThat(links(response)).containsExactlyInAnyOrderElementsOf(urls(45, 53));
+        assertThat(response.providerHasMore()).isFalse();
+    }
+
+    @Test
+    void search_reportsMoreAtAPageBoundaryOnlyWhenTheProviderHasMore() {
+        PagedSearchClient more = new PagedSearchClient(100);
+        SearchResponse endOfFirstPage = search(more, 10, 40);
+        PagedSearchClient exact = new PagedSearchClient(50);
+        SearchResponse endOfResults = search(exact, 10, 40);
+
+        assertThat(more.offsets).containsExactly(0);
+        assertThat(links(endOfFirstPage)).containsExactlyInAnyOrderElementsOf(urls(40, 50));
+        assertThat(endOfFirstPage.providerHasMore()).isTrue();
+        assertThat(links(endOfResults)).containsExactlyInAnyOrderElementsOf(urls(40, 50));
+        assertThat(endOfResults.providerHasMore()).isFalse();
+    }
+
+    @Test
+    void searchStream_stopsWaitingForPreviewsOnceNoneIsPending() throws Exception {
+        properties.getStreaming().setEnrichmentWaitMillis(10_000);
+        when(cacheService.get(anyString())).thenReturn(Mono.empty());
+        when(cacheService.put(anyString(), any(), any())).thenReturn(Mono.empty());
+        Sinks.Many<SnippetUpdate> previews = Sinks.many().multicast().directBestEffort();
+        AtomicBoolean enriching = new AtomicBoolean(true);
+        when(asyncEnrichmentService.snippetUpdates()).thenReturn(previews.asFlux());
+        // Only the first result was enqueued; its preview is published before it stops being pending.
+        when(asyncEnrichmentService.isPending(anyString()))
+                .thenAnswer(invocation -> enriching.get() && PagedSearchClient.url(0).equals(invocation.getArgument(0)));
+        SearchService service = service(new PagedSearchClient(3));
+
+        Thread publisher = new Thread(() -> {
+            sleep(300);
+            previews.tryEmitNext(new SnippetUpdate(1L, PagedSearchClient.url(0), "A: use groupingBy"));
+            enriching.set(false);
+        });
+        long startedAt = System.nanoTime();
+        publisher.start();
+        List<SearchStreamEvent> events = service.searchStream("java stream", 3, 0, "relevance", List.of())
+                .collectList()
+                .block(Duration.ofSeconds(5));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+        publisher.join();
+
+        assertThat(events).extracting(SearchStreamEvent::type).containsExactly("results", "snippet", "done");
+        assertThat(events.get(1).snippet().link()).isEqualTo(PagedSearchClient.url(0));
+        assertThat(elapsedMillis).isLessThan(2_000);
+    }
+
+    @Test
+    void search_servesWhatArrivedByTheDeadlineAndReportsTheLateProvider() {
+        properties.getProviders().setLatencyBudgetMillis(200);
+        when(cacheService.get(anyString())).thenReturn(Mono.empty());
+        DelayedSearchClient slow = new DelayedSearchClient(Duration.ofSeconds(5));
+        SearchService service = service(slow, new PagedSearchClient(3));
+
+        long startedAt = System.nanoTime();
+        SearchResponse response = service.search("java stream", 3, 0, "relevance", List.of()).block(Duration.ofSeconds(5));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+
+        assertThat(elapsedMillis).isLessThan(1_500);
+        assertThat(response.timedOutProviders()).containsExactly("delayed");
+        assertThat(response.skippedProviders()).isEmpty();
+        assertThat(links(response)).containsExactlyInAnyOrderElementsOf(urls(0, 3));
+        assertThat(meterRegistry.counter("search.provider.timeouts", "provider", "delayed").count()).isEqualTo(1.0);
+        verify(cacheService, never()).put(anyString(), any(), any());
+    }
+
+    @Test
+    void search_hedgesACallStillRunningPastTheProvidersP95() {
+        when(cacheService.get(anyString())).thenReturn(Mono.empty());
+        when(cacheService.put(anyString(), any(), any())).thenReturn(Mono.empty());
+        // Twenty 50 ms calls put the hedge delay at its 100 ms floor.
+        for (int call = 0; call < 20; call++) {
+            latencyTracker.record("delayed", Duration.ofMillis(50).toNanos());
+        }
+        DelayedSearchClient client = new DelayedSearchClient(Duration.ofSeconds(5), Duration.ZERO);
+        SearchService service = service(client);
+
+        long startedAt = System.nanoTime();
+        SearchResponse response = service.search("java stream", 3, 0, "relevance", List.of()).block(Duration.ofSeconds(5));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+
+        assertThat(elapsedMillis).isLessThan(1_500);
+        assertThat(client.calls).hasValue(2);
+        assertThat(response.timedOutProviders()).isEmpty();
+        assertThat(response.items()).hasSize(1);
+        assertThat(meterRegistry.counter("search.provider.hedges", "provider", "delayed").count()).isEqualTo(1.0);
+        verify(cacheService).put(anyString(), any(), any());
+    }
+
+    @Test
+    void search_reportsAFailedProviderAndDoesNotCacheTheResponse() {
+        when(cacheService.get(anyString())).thenReturn(Mono.empty());
+        FailingSearchClient failing = new FailingSearchClient();
+        SearchService service = service(failing, new PagedSearchClient(3));
+
+        SearchResponse response = service.search("java stream", 3, 0, "relevance", List.of()).block(Duration.ofSeconds(5));
+
+        assertThat(failing.calls).hasValue(1);
+        assertThat(response.failedProviders()).containsExactly("failing");
+        assertThat(response.timedOutProviders()).isEmpty();
+        assertThat(response.skippedProviders()).isEmpty();
+        assertThat(links(response)).containsExactlyInAnyOrderElementsOf(urls(0, 3));
+        verify(cacheService, never()).put(anyString(), any(), any());
+    }
+
+    @Test
+    void search_skipsAProviderWhoseBreakerIsOpenAndDoesNotCacheTheResponse() {
+        SearchProperties.Providers.CircuitBreaker settings = properties.getProviders().getCircuitBreaker();
+        settings.setWindowSize(1);
+        settings.setMinimumCalls(1);
+        ProviderCircuitBreakers.Breaker breaker = circuitBreakers.forProvider("failing");
+        breaker.onFailure(breaker.tryAcquire(), Duration.ofMillis(10).toNanos());
+        when(cacheService.get(anyString())).thenReturn(Mono.empty());
+        FailingSearchClient failing = new FailingSearchClient();
+        SearchService service = service(failing, new PagedSearchClient(3));
+
+        SearchResponse response = service.search("java stream", 3, 0, "relevance", List.of()).block(Duration.ofSeconds(5));
+
+        assertThat(breaker.snapshot().state()).isEqualTo(ProviderCircuitBreakers.State.OPEN);
+        assertThat(failing.calls).hasValue(0);
+        assertThat(response.skippedProviders()).containsExactly("failing");
+        assertThat(response.failedProviders()).isEmpty();
+        assertThat(links(response)).containsExactlyInAnyOrderElementsOf(urls(0, 3));
+        verify(cacheService, never()).put(anyString(), any(), any());
+    }
+
+    private SearchService service(ExternalSearchClient... clients) {
+        LocalSearchIndex localSearchIndex = new LocalSearchIndex(null, properties);
+        return new SearchService(
+                List.of(clients),
+                new Ranker(properties, localSearchIndex),
+                cacheService,
+                new ProviderPageCache(properties, meterRegistry),
+                latencyTracker,
+                circuitBreakers,
+                mock(DocumentIngestionService.class),
+                mock(QueryLogService.class),
+                Runnable::run,
+                asyncEnrichmentService,
+                localSearchIndex,
+                backoffManager,
+                new SearchRequestCoalescer(properties, meterRegistry),
+                Runnable::run,
+                properties,
+                meterRegistry
+        );
+    }
+
+    // Over-fetching is turned off so the provider window is exactly [offset, offset + limit).
+    private SearchResponse search(ExternalSearchClient client, int limit, int offset) {
+        properties.getRanking().setProviderOverFetchFactor(1);
+        when(cacheService.get(anyString())).thenReturn(Mono.empty());
+        when(cacheService.put(anyString(), any(), any())).thenReturn(Mono.empty());
+        return service(client).search("java stream", limit, offset, "relevance", List.of()).block(Duration.ofSeconds(5));
+    }
+
+    private static List<String> links(SearchResponse response) {
+        return response.items().stream().map(SearchItem::link).toList();
+    }
+
+    private static List<String> urls(int from, int to) {
+        return IntStream.range(from, to).mapToObj(PagedSearchClient::url).toList();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Answers PAGE, or INVALID_KEY while the request carries a key, and records every request sent.
+    private StackOverflowSearchClient stackOverflow(String apiKey) {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request.url());
+                    String query = request.url().getQuery();
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(query != null && query.contains("key=") ? INVALID_KEY : PAGE)
+                            .build());
+                })
+                .build();
+        return new StackOverflowSearchClient(webClient, "http://localhost", apiKey, backoffManager, rateGovernor);
+    }
+
+    private SearchResponse emptyResponse() {
+        return new SearchResponse("java stream", "relevance", List.of(), 10, 0, false, false, Instant.now(), 0, List.of(), false, List.of(), List.of(), List.of());
+    }
+
+    // Holds every call until released and records the priority it was made with.
+    private static final class HeldSearchClient implements ExternalSearchClient {
+
+        private final List<StackExchangeRateGovernor.Priority> priorities = new CopyOnWriteArrayList<>();
+        private final Sinks.One<ProviderSearchPage> release = Sinks.one();
+
+        @Override
+        public Mono<ProviderSearchPage> searchReactive(String query, int limit, int offset, String sort, List<String> tags) {
+            return Mono.deferContextual(context -> {
+                priorities.add(context.getOrDefault(
+                        StackExchangeRateGovernor.Priority.class,
+                        StackExchangeRateGovernor.Priority.INTERACTIVE
+                ));
+                return release.asMono();
+            });
+        }
+    }
+
+    // Serves results 0 to total - 1 in whatever pages are asked for, and records the offset of each call.
+    private static final class PagedSearchClient implements ExternalSearchClient {
+
+        private final List<Integer> offsets = new CopyOnWriteArrayList<>();
+        private final int total;
+
+        private PagedSearchClient(int total) {
+            this.total = total;
+        }
+
+        static String url(int index) {
+            return "https://stackoverflow.com/questions/" + (index + 1);
+        }
+
+        @Override
+        public Mono<ProviderSearchPage> searchReactive(String query, int limit, int offset, String sort, List<String> tags) {
+            offsets.add(offset);
+            return Mono.just(page(offset, limit));
+        }
+
+        ProviderSearchPage page(int offset, int limit) {
+            List<ProviderSearchResult> items = IntStream.range(offset, Math.min(total, offset + limit))
+                    .mapToObj(index -> new ProviderSearchResult(
+                            (long) index + 1,
+                            url(index),
+                            "Java stream question " + index,
+                            "Collectors.groupingBy",
+                            SourceType.STACKOVERFLOW,
+                            1,
+                            true,
+                            null,
+                            1.0,
+                            Instant.ofEpochSecond(1_700_000_000L + index),
+                            List.of("java"),
+                            "{}"
+                    ))
+                    .toList();
+            return new ProviderSearchPage(items, offset + limit < total);
+        }
+    }
+
+    // Answers one result after the delay given for each call in turn; later calls reuse the last delay.
+    private static final class DelayedSearchClient implements ExternalSearchClient {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<Duration> delays;
+
+        private DelayedSearchClient(Duration... delays) {
+            this.delays = List.of(delays);
+        }
+
+        @Override
+        public Mono<ProviderSearchPage> searchReactive(String query, int limit, int offset, String sort, List<String> tags) {
+            int call = calls.getAndIncrement();
+            ProviderSearchPage page = new PagedSearchClient(1).page(offset, limit);
+            return Mono.just(page).delayElement(delays.get(Math.min(call, delays.size() - 1)));
+        }
+    }
+
+    // Fails every call the way a provider answering 503 does.
+    private static final class FailingSearchClient implements ExternalSearchClient {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Mono<ProviderSearchPage> searchReactive(String query, int limit, int offset, String sort, List<String> tags) {
+            calls.incrementAndGet();
+            return Mono.error(new IllegalStateException("HTTP 503"));
+        }
+    }
+}